@@ -0,0 +1,44 @@
+#!/bin/sh
+# Fast start for small jobs (a few orders), where JVM startup costs more than the search.
+#
+#   ./fast-start.sh train                  Packs the compiled classes into gropro.jar and records an
+#                                          AppCDS archive (gropro.jsa) in a training run on IHK1.in.
+#   ./fast-start.sh <input_base> [opts]    Runs Main --fast from the archive (C1 only, SerialGC).
+#
+# CLASSES is the folder with the compiled classes (default: IntelliJ's out/production/gropro;
+# target/classes after mvn compile, which also includes the vector index from src-vector).
+# The archive only matches the jar it was recorded with: train again after every rebuild.
+# Larger jobs should run Main normally, C1 alone makes the search itself several times slower.
+set -e
+
+DIR=$(cd "$(dirname "$0")" && pwd)
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+JAR_TOOL="${JAVA_HOME:+$JAVA_HOME/bin/}jar"
+CLASSES="${CLASSES:-$DIR/out/production/gropro}"
+JAR="$DIR/gropro.jar"
+ARCHIVE="$DIR/gropro.jsa"
+JVM_OPTS="-XX:TieredStopAtLevel=1 -XX:+UseSerialGC"
+
+if [ $# -lt 1 ]; then
+    sed -n '2,11p' "$0"
+    exit 1
+fi
+
+if [ "$1" = "train" ]; then
+    # CDS only archives classes from jars, not from class folders
+    rm -f "$JAR" "$ARCHIVE"
+    "$JAR_TOOL" --create --file "$JAR" --main-class Main -C "$CLASSES" .
+    # Train in a scratch folder so the checked-in IHK1 outputs are not overwritten
+    WORK=$(mktemp -d)
+    trap 'rm -rf "$WORK"' EXIT
+    cp "$DIR/IHK1.in" "$WORK/"
+    (cd "$WORK" && "$JAVA" $JVM_OPTS -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$JAR" Main IHK1 --fast > /dev/null)
+    echo "Archive written: $ARCHIVE"
+    exit 0
+fi
+
+if [ ! -f "$ARCHIVE" ]; then
+    echo "No archive found, run: $0 train" >&2
+    exit 1
+fi
+exec "$JAVA" $JVM_OPTS -XX:SharedArchiveFile="$ARCHIVE" -cp "$JAR" Main "$@" --fast
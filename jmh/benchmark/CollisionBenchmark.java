@@ -0,0 +1,106 @@
+package benchmark;
+
+import model.CustomerOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import verarbeitung.CollisionIndex;
+import verarbeitung.CollisionMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmark of the overlap check in the inner loop of the recursive search: one candidate
+ * rectangle against n placed rectangles, per collision mode. OBJECTS scans the CustomerOrder list;
+ * the forks add jdk.incubator.vector, so VECTOR really uses SIMD.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class CollisionBenchmark {
+
+    private static final int ROLL_WIDTH = 900;
+    private static final int CANDIDATES = 4096;
+
+    @Param({"4", "8", "16", "32", "64", "256"})
+    public int placed;
+
+    @Param({"OBJECTS", "SCALAR", "VECTOR", "RASTER"})
+    public CollisionMode mode;
+
+    private List<CustomerOrder> placedOrders;
+    private CollisionIndex index;
+    private CustomerOrder[] candidates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (mode == CollisionMode.VECTOR && !CollisionMode.isVectorAvailable()) {
+            throw new IllegalStateException("jdk.incubator.vector not available in the fork.");
+        }
+        Random random = new Random(42 + placed);
+        placedOrders = new ArrayList<>(placed);
+        index = mode.newIndex(placed, ROLL_WIDTH);
+        for (int i = 0; i < placed; i++) {
+            // Tile the roll in rows so the placed rectangles do not overlap each other
+            int columns = 6;
+            int w = ROLL_WIDTH / columns;
+            int h = 50 + random.nextInt(100);
+            int x = (i % columns) * w;
+            int y = (i / columns) * 200;
+            CustomerOrder order = new CustomerOrder(w, h, i, "R" + i);
+            order.setPlacement(x, y, false);
+            placedOrders.add(order);
+            if (index != null) {
+                index.push(x, y, x + w, y + h);
+            }
+        }
+        int maxY = ((placed + 5) / 6) * 200;
+        candidates = new CustomerOrder[CANDIDATES];
+        for (int c = 0; c < CANDIDATES; c++) {
+            int w = 20 + random.nextInt(200);
+            int h = 20 + random.nextInt(200);
+            CustomerOrder candidate = new CustomerOrder(w, h, -c - 1, "C");
+            candidate.setPlacement(random.nextInt(ROLL_WIDTH - w + 1), random.nextInt(2 * maxY), false);
+            candidates[c] = candidate;
+        }
+    }
+
+    // Reported per candidate check
+    @Benchmark
+    @OperationsPerInvocation(CANDIDATES)
+    public int overlapsAny() {
+        int hits = 0;
+        for (CustomerOrder candidate : candidates) {
+            if (index == null ? overlapsObjects(candidate) : index.overlapsAny(
+                    candidate.getXLU(), candidate.getYLU(), candidate.getXRO(), candidate.getYRO())) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private boolean overlapsObjects(CustomerOrder candidate) {
+        for (CustomerOrder order : placedOrders) {
+            if (candidate.overlaps(order)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import io.InputReader;
+import model.CustomerOrder;
+import model.InputData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import verarbeitung.ExecutionMode;
+import verarbeitung.PlacementService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many callers solving one small batch at once (bulk/server load): every operation starts
+ * {@code jobs} platform threads that each call optimizeBatch on their own service. Run state
+ * (best heights, cancellation, deadline) belongs to a service, so jobs do not share one; with
+ * EXECUTOR all services use the same pool.
+ * <p>
+ * Run from the folder with the *.in files, e.g.:
+ * java -jar target/benchmarks.jar ConcurrentJobsBenchmark -p jobs=16,64 -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentJobsBenchmark {
+
+    @Param({"IHK1"})
+    public String input;
+
+    @Param({"64"})
+    public int jobs;
+
+    @Param({"EXECUTOR", "STRUCTURED"})
+    public ExecutionMode mode;
+
+    private List<CustomerOrder> batch;
+    private ForkJoinPool pool;
+    private final List<PlacementService> services = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        InputData data = InputReader.readInput(input + ".in");
+        batch = data.orders().subList(0, Math.min(data.optimizationDepth(), data.orders().size()));
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        for (int j = 0; j < jobs; j++) {
+            PlacementService service = new PlacementService(data.rollWidth(), data.optimizationDepth(), false, pool, false);
+            service.setExecutionMode(mode);
+            services.add(service);
+        }
+        QuietConsole.silence();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        QuietConsole.restore();
+        services.forEach(PlacementService::close);
+        services.clear();
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void concurrentJobs() throws InterruptedException {
+        List<Thread> callers = new ArrayList<>(jobs);
+        for (PlacementService service : services) {
+            callers.add(Thread.ofPlatform().start(() -> service.optimizeBatch(batch)));
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+    }
+}
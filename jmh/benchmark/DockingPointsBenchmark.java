@@ -0,0 +1,77 @@
+package benchmark;
+
+import model.CustomerOrder;
+import model.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import verarbeitung.PlacementService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * calculateDockingPoints on synthetic layouts of 1k to 100k placed orders. The method is O(n^2):
+ * 100k already takes over a minute per call on one core, so 1M (about 100 times that) is left out.
+ * Pass e.g. -p scale=1000,10000 for a quick run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DockingPointsBenchmark {
+
+    private static final int ROLL_WIDTH = 900;
+
+    @Param({"1000", "10000", "100000"})
+    public int scale;
+
+    private List<CustomerOrder> layout;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        layout = syntheticLayout(scale, new Random(scale));
+    }
+
+    @Benchmark
+    public Set<Point> dockingPoints() {
+        return PlacementService.calculateDockingPoints(layout, ROLL_WIDTH);
+    }
+
+    // Fills the roll row by row with random small rectangles (already placed)
+    private static List<CustomerOrder> syntheticLayout(int count, Random random) {
+        List<CustomerOrder> layout = new ArrayList<>(count);
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        for (int i = 0; i < count; i++) {
+            int w = 20 + random.nextInt(180);
+            int h = 20 + random.nextInt(180);
+            if (x + w > ROLL_WIDTH) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            CustomerOrder order = new CustomerOrder(w, h, i + 1, "S" + i);
+            order.setPlacement(x, y, false);
+            layout.add(order);
+            x += w;
+            rowHeight = Math.max(rowHeight, h);
+        }
+        return layout;
+    }
+}
@@ -0,0 +1,90 @@
+package benchmark;
+
+import io.InputReader;
+import io.OutputWriter;
+import model.CustomerOrder;
+import model.InputData;
+import model.PlacementResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import verarbeitung.PlacementService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * InputReader.readInput and the OutputWriter file output (without gnuplot) on the bundled inputs.
+ * <p>
+ * Run from the folder with the *.in files, e.g.:
+ * java -jar target/benchmarks.jar InputOutputBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputOutputBenchmark {
+
+    @Param({"IHK1", "IHK2", "IHK3", "Test_4", "Test_6", "Test_8", "Test_10", "Test_11", "Test_13", "Test_14", "Test_16"})
+    public String input;
+
+    private InputData data;
+    private PlacementResult result;
+    private Path outDir;
+    private String outBase;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = InputReader.readInput(input + ".in");
+        // A cheap but complete layout: every order in its own row
+        List<CustomerOrder> placed = new ArrayList<>();
+        int y = 0;
+        for (CustomerOrder order : data.orders()) {
+            CustomerOrder copy = order.copy();
+            copy.setPlacement(0, y, order.originalWidth > data.rollWidth());
+            placed.add(copy);
+            y = copy.getYRO();
+        }
+        result = new PlacementResult(placed, PlacementService.calculateDockingPoints(placed, data.rollWidth()), y, 0.0);
+        outDir = Files.createTempDirectory("gropro-bench");
+        outBase = outDir.resolve(input).toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(outDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public InputData readInput() throws IOException {
+        return InputReader.readInput(input + ".in");
+    }
+
+    @Benchmark
+    public void writeOutput() {
+        OutputWriter.writeFilesAsync(outBase, data, result, ForkJoinPool.commonPool()).join();
+    }
+}
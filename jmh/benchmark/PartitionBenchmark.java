@@ -0,0 +1,54 @@
+package benchmark;
+
+import model.CustomerOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import verarbeitung.BatchPartitioner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchPartitioner on synthetic order lists with widths that combine into full rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionBenchmark {
+
+    private static final int[] WIDTHS = {100, 150, 200, 225, 300, 350, 400, 450, 500, 550, 600, 700, 800, 333, 417};
+
+    @Param({"10000", "100000"})
+    public int scale;
+
+    private List<CustomerOrder> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(scale);
+        orders = new ArrayList<>(scale);
+        for (int i = 0; i < scale; i++) {
+            orders.add(new CustomerOrder(WIDTHS[random.nextInt(WIDTHS.length)], 50 + random.nextInt(300), i + 1, "P" + i));
+        }
+    }
+
+    @Benchmark
+    public List<List<CustomerOrder>> partition() {
+        return BatchPartitioner.partition(orders, 900, 15);
+    }
+}
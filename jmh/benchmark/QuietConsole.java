@@ -0,0 +1,30 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Swallows System.out for the duration of a trial: the search logs every batch, and console I/O
+ * must not be part of the measurement. JMH reports through its own channel to the host VM.
+ */
+final class QuietConsole {
+
+    private static PrintStream original;
+
+    private QuietConsole() {
+    }
+
+    static synchronized void silence() {
+        if (original == null) {
+            original = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    static synchronized void restore() {
+        if (original != null) {
+            System.setOut(original);
+            original = null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import io.InputReader;
+import model.CustomerOrder;
+import model.InputData;
+import model.PlacementResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import verarbeitung.ExecutionMode;
+import verarbeitung.PlacementService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findOptimalPlacementParallelBatches on the bundled inputs with the STRUCTURED mode (virtual
+ * threads). Same inputs and counters as {@link SolveBenchmark}; the carrier pool is sized by the
+ * JVM (-Djdk.virtualThreadScheduler.parallelism), so there is no thread count parameter.
+ * <p>
+ * Run from the folder with the *.in files, e.g.:
+ * java -jar target/benchmarks.jar StructuredSolveBenchmark -p input=IHK1,Test_4 -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructuredSolveBenchmark {
+
+    @Param({"IHK1", "IHK2", "IHK3", "Test_4", "Test_6", "Test_8", "Test_10", "Test_11", "Test_13", "Test_14", "Test_16"})
+    public String input;
+
+    private List<CustomerOrder> orders;
+    private PlacementService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        InputData data = InputReader.readInput(input + ".in");
+        orders = data.orders();
+        service = new PlacementService(data.rollWidth(), data.optimizationDepth(), false);
+        service.setExecutionMode(ExecutionMode.STRUCTURED);
+        QuietConsole.silence();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        QuietConsole.restore();
+        service.close();
+    }
+
+    @Benchmark
+    public PlacementResult solve(SolveBenchmark.Nodes nodes) {
+        long before = service.getRecursiveCallCount();
+        PlacementResult result = service.findOptimalPlacementParallelBatches(orders);
+        nodes.nodes += service.getRecursiveCallCount() - before;
+        return result;
+    }
+}
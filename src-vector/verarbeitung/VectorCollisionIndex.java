@@ -0,0 +1,72 @@
+package verarbeitung;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD collision index using the incubating Vector API: one candidate rectangle is tested against
+ * {@code SPECIES.length()} placed rectangles per step (8 lanes with AVX2, 16 with AVX-512).
+ * The remainder after the last full vector is checked by a scalar tail loop in each method; the
+ * base class only provides the packed coordinate arrays and the push/pop stack.
+ * <p>
+ * Requires {@code --add-modules jdk.incubator.vector} at compile and run time, so it lives in its
+ * own source root (src-vector) and the main sources compile without the module. Only ever loaded
+ * reflectively through {@link CollisionMode#VECTOR}, which falls back to the scalar index if the
+ * module or this class is missing.
+ */
+final class VectorCollisionIndex extends PackedCollisionIndex {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    VectorCollisionIndex(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    @Override
+    public boolean overlapsAny(int x1, int y1, int x2, int y2) {
+        final int upper = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            VectorMask<Integer> hit = IntVector.fromArray(SPECIES, xr, i).compare(VectorOperators.GT, x1)
+                    .and(IntVector.fromArray(SPECIES, xl, i).compare(VectorOperators.LT, x2))
+                    .and(IntVector.fromArray(SPECIES, yr, i).compare(VectorOperators.GT, y1))
+                    .and(IntVector.fromArray(SPECIES, yl, i).compare(VectorOperators.LT, y2));
+            if (hit.anyTrue()) {
+                return true;
+            }
+        }
+        for (; i < count; i++) {
+            if (x1 < xr[i] && x2 > xl[i] && y1 < yr[i] && y2 > yl[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean covers(int px, int py) {
+        final int upper = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            VectorMask<Integer> hit = IntVector.fromArray(SPECIES, xl, i).compare(VectorOperators.LE, px)
+                    .and(IntVector.fromArray(SPECIES, xr, i).compare(VectorOperators.GT, px))
+                    .and(IntVector.fromArray(SPECIES, yl, i).compare(VectorOperators.LE, py))
+                    .and(IntVector.fromArray(SPECIES, yr, i).compare(VectorOperators.GT, py));
+            if (hit.anyTrue()) {
+                return true;
+            }
+        }
+        for (; i < count; i++) {
+            if (px >= xl[i] && px < xr[i] && py >= yl[i] && py < yr[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static int laneCount() {
+        return SPECIES.length();
+    }
+}
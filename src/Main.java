@@ -3,26 +3,96 @@ import io.OutputWriter;
 import model.InputData;
 import model.PlacementResult;
 import model.Point;
+import verarbeitung.BatchCoordinator;
+import verarbeitung.BatchWorker;
+import verarbeitung.CollisionMode;
+import verarbeitung.ExecutionMode;
 import verarbeitung.PlacementService;
+import verarbeitung.SearchMetrics;
 
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 public class Main {
 
+    private static final long WORKER_CONNECT_TIMEOUT_MS = 60_000;
+
     public static void main(String[] args) {
         if (args.length < 1) {
-            System.err.println("Usage: java Main <input_filename_base>");
+            System.err.println("Usage: java Main <input_filename_base> [--workers <n> [--port <port>]] [--collision objects|scalar|vector|raster] [--metrics] [--jmx] [--repartition] [--execution executor|structured] [--fast]");
+            System.err.println("       java Main --worker <coordinator_host> <port>");
             System.err.println("Example: java Main Beispiel1");
             System.err.println("(Assumes input file is <input_filename_base>.in)");
+            System.err.println("--workers spawns <n> local worker JVMs; with --port the coordinator listens on all");
+            System.err.println("interfaces instead and waits for <n> workers started with --worker. The workers use the");
+            System.err.println("default search, so --workers cannot be combined with --collision, --execution,");
+            System.err.println("--repartition, --metrics or --jmx.");
+            System.err.println("--collision vector needs the src-vector classes and --add-modules jdk.incubator.vector, otherwise scalar is used.");
+            System.err.println("--metrics writes search counters and timings to <input_filename_base>.metrics.json.");
+            System.err.println("--execution structured runs batches and branches in virtual threads with scoped cancellation.");
+            System.err.println("--repartition groups orders whose widths fill the roll into the same batch.");
+            System.err.println("--jmx registers the PlacementService MXBean (best heights, node rate, cancel, deadline).");
+            System.err.println("--fast skips CPU time measurement and gnuplot and writes the output files sequentially;");
+            System.err.println("fast-start.sh adds an AppCDS archive from a training run (for small jobs).");
+            System.err.println("JFR events (category Placement) are recorded with e.g. jcmd <pid> JFR.start.");
+            return;
+        }
+
+        // --- Worker mode for distributed solving ---
+        if (args[0].equals("--worker")) {
+            if (args.length < 3) {
+                System.err.println("Usage: java Main --worker <coordinator_host> <port>");
+                return;
+            }
+            new BatchWorker(args[1], Integer.parseInt(args[2])).run();
             return;
         }
 
         String baseFilename = args[0];
         String inputFilename = baseFilename + ".in";
+        int workerCount = 0;
+        int port = -1;
+        CollisionMode collisionMode = CollisionMode.OBJECTS;
+        boolean metricsEnabled = false;
+        boolean jmxEnabled = false;
+        boolean repartition = false;
+        ExecutionMode executionMode = ExecutionMode.EXECUTOR;
+        boolean fast = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--workers" -> workerCount = Integer.parseInt(args[++i]);
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--collision" -> collisionMode = CollisionMode.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--metrics" -> metricsEnabled = true;
+                case "--jmx" -> jmxEnabled = true;
+                case "--repartition" -> repartition = true;
+                case "--execution" -> executionMode = ExecutionMode.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--fast" -> fast = true;
+                default -> System.err.println("Ignoring unknown option: " + args[i]);
+            }
+        }
+        if (workerCount > 0) {
+            // Coordinator and workers search with the default settings, these options would be ignored
+            List<String> unsupported = new ArrayList<>();
+            if (collisionMode != CollisionMode.OBJECTS) unsupported.add("--collision");
+            if (executionMode != ExecutionMode.EXECUTOR) unsupported.add("--execution");
+            if (repartition) unsupported.add("--repartition");
+            if (metricsEnabled) unsupported.add("--metrics");
+            if (jmxEnabled) unsupported.add("--jmx");
+            if (!unsupported.isEmpty()) {
+                System.err.println("--workers cannot be combined with " + String.join(", ", unsupported) + ".");
+                return;
+            }
+        }
 
         // --- Eingabe ---
         InputData inputData;
@@ -41,23 +111,45 @@ public class Main {
 
         // --- Verarbeitung ---
         System.out.println("\nStarting placement optimization...");
-        PlacementService placementService = new PlacementService(inputData.rollWidth(), inputData.optimizationDepth(),false);
+        PlacementService placementService = null; // Only for a local search
+        SearchMetrics metrics = null;
+        if (workerCount == 0) {
+            placementService = new PlacementService(inputData.rollWidth(), inputData.optimizationDepth(),false);
+            placementService.setCollisionMode(collisionMode);
+            placementService.setRepartitioning(repartition);
+            placementService.setExecutionMode(executionMode);
+            if (collisionMode == CollisionMode.VECTOR && !CollisionMode.isVectorAvailable()) {
+                System.out.println("jdk.incubator.vector not available, using scalar collision checks.");
+            }
+            metrics = metricsEnabled ? placementService.enableMetrics() : null;
+            if (jmxEnabled) {
+                System.out.println("Registered MBean: " + placementService.registerMBean());
+            }
+        }
 
-        // Implement Timer for performance
-        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
-        if (!threadMXBean.isCurrentThreadCpuTimeSupported()) {
-            System.out.println("CPU time measurement not supported.");
-        } else {
-            threadMXBean.setThreadCpuTimeEnabled(true);
+        // Implement Timer for performance (wall time only in fast mode, the management beans take ~50 ms to start)
+        ThreadMXBean threadMXBean = null;
+        if (!fast) {
+            threadMXBean = ManagementFactory.getThreadMXBean();
+            if (!threadMXBean.isCurrentThreadCpuTimeSupported()) {
+                System.out.println("CPU time measurement not supported.");
+            } else {
+                threadMXBean.setThreadCpuTimeEnabled(true);
+            }
         }
 
         long startTime = System.nanoTime();
-        long startCpuTime = threadMXBean.getCurrentThreadCpuTime();
+        long startCpuTime = threadMXBean != null ? threadMXBean.getCurrentThreadCpuTime() : 0L;
 
-        PlacementResult result = placementService.findOptimalPlacementParallelBatches(inputData.orders());
+        PlacementResult result;
+        if (workerCount > 0) {
+            result = solveDistributed(inputData, workerCount, port);
+        } else {
+            result = placementService.findOptimalPlacementParallelBatches(inputData.orders());
+        }
 
         long endTime = System.nanoTime();
-        long endCpuTime = threadMXBean.getCurrentThreadCpuTime();
+        long endCpuTime = threadMXBean != null ? threadMXBean.getCurrentThreadCpuTime() : 0L;
 
         long elapsedTime = (endTime - startTime); // in nanoseconds
         double elapsedTimeInSeconds = (double) elapsedTime / 1_000_000_000.0;
@@ -67,10 +159,26 @@ public class Main {
 
         System.out.println(
                 "Optimization finished in: " + elapsedTimeInSeconds + " seconds (" + elapsedTime + " nanoseconds)");
-        System.out.println(
-                "CPU time used: " + cpuTimeInSeconds + " seconds (" + cpuTime + " nanoseconds)");
+        if (threadMXBean != null) {
+            System.out.println(
+                    "CPU time used: " + cpuTimeInSeconds + " seconds (" + cpuTime + " nanoseconds)");
+        }
 
         System.out.println("Optimization finished.");
+        if (result != null && result.batchCount() > 0) {
+            System.out.printf("Batches proven optimal (height = lower bound): %d of %d%n",
+                    result.provenOptimalBatches(), result.batchCount());
+        }
+
+        if (metrics != null) {
+            String metricsFilename = baseFilename + ".metrics.json";
+            try {
+                Files.writeString(Path.of(metricsFilename), metrics.toJson());
+                System.out.println("Search metrics written to: " + metricsFilename);
+            } catch (IOException e) {
+                System.err.println("Error writing search metrics: " + e.getMessage());
+            }
+        }
 
         if (result == null) {
             System.err.println("No placement solution found.");
@@ -81,8 +189,13 @@ public class Main {
         // --- Ausgabe ---
         System.out.println("\nWriting output files...");
         try {
-            OutputWriter.writeOutput(baseFilename, inputData, result);
-            System.out.println("Output files generated: " + baseFilename + ".out, " + baseFilename + ".gnu, " + baseFilename + ".png");
+            if (fast) {
+                OutputWriter.writeFiles(baseFilename, inputData, result);
+                System.out.println("Output files generated: " + baseFilename + ".out, " + baseFilename + ".gnu, " + baseFilename + ".bin");
+            } else {
+                OutputWriter.writeOutput(baseFilename, inputData, result);
+                System.out.println("Output files generated: " + baseFilename + ".out, " + baseFilename + ".gnu, " + baseFilename + ".bin, " + baseFilename + ".png");
+            }
         } catch (IOException e) {
             System.err.println("Error writing output files: " + e.getMessage());
             e.printStackTrace();
@@ -90,4 +203,22 @@ public class Main {
 
         System.out.println("\nProcess completed.");
     }
+
+    private static PlacementResult solveDistributed(InputData inputData, int workerCount, int port) {
+        InetSocketAddress bindAddress = port >= 0
+                ? new InetSocketAddress(port)
+                : new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (BatchCoordinator coordinator = new BatchCoordinator(inputData.rollWidth(), inputData.optimizationDepth(), false, bindAddress)) {
+            if (port < 0) {
+                coordinator.spawnLocalWorkers(workerCount);
+            } else {
+                System.out.printf("Waiting for %d workers on port %d...%n", workerCount, coordinator.getPort());
+            }
+            coordinator.awaitWorkers(workerCount, WORKER_CONNECT_TIMEOUT_MS);
+            return coordinator.findOptimalPlacementDistributed(inputData.orders());
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Distributed placement failed: " + e.getMessage());
+            return null;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,234 @@
+package io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Zero-copy reader for the binary layout format written by {@link OutputWriter#writeBinaryOutput}.
+ * The file is memory-mapped and every accessor reads directly from the mapping, so opening a
+ * layout costs the same regardless of its size and only the touched pages are loaded.
+ *
+ * <pre>
+ * Header (big-endian, {@value #HEADER_SIZE} bytes):
+ *   int    magic            'GPLB'
+ *   int    version          {@value #VERSION}
+ *   int    rollWidth
+ *   int    totalHeight
+ *   double utilization
+ *   int    orderCount       n
+ *   int    dockingCount     m
+ *   int    maxOrderHeight   largest placed height (bounds range queries)
+ *   int    stringTableOffset
+ *   int    dockingOffset
+ * Columns (orders sorted by y_LU, then x_LU):
+ *   int[n] x_LU, int[n] y_LU, int[n] x_RO, int[n] y_RO, int[n] id, int[n] descriptionIndex
+ *   int[(n + 31) / 32] rotation bitset
+ * String table:
+ *   int count k, int[k + 1] byte offsets relative to the first string byte, UTF-8 bytes
+ * Docking points (sorted by y, then x):
+ *   int[m] x, int[m] y
+ * </pre>
+ */
+public final class BinaryLayoutReader implements AutoCloseable {
+
+    static final int MAGIC = 0x47504C42; // "GPLB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 44;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private final int rollWidth;
+    private final int totalHeight;
+    private final double utilization;
+    private final int orderCount;
+    private final int dockingCount;
+    private final int maxOrderHeight;
+    private final int stringCount;
+    private final int stringOffsetsPos;
+    private final int stringBytesPos;
+    private final int dockingPos;
+
+    private BinaryLayoutReader(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary layout file (bad magic).");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary layout version: " + version);
+        }
+        this.rollWidth = buffer.getInt(8);
+        this.totalHeight = buffer.getInt(12);
+        this.utilization = buffer.getDouble(16);
+        this.orderCount = buffer.getInt(24);
+        this.dockingCount = buffer.getInt(28);
+        this.maxOrderHeight = buffer.getInt(32);
+        int stringTableOffset = buffer.getInt(36);
+        this.dockingPos = buffer.getInt(40);
+        // Validate every section offset before reading from it (long arithmetic, the fields may be corrupt)
+        final long capacity = buffer.capacity();
+        if (orderCount < 0 || dockingCount < 0) {
+            throw new IOException("Binary layout file is corrupt (negative counts).");
+        }
+        final long columnsEnd = HEADER_SIZE + (6L * orderCount + (orderCount + 31L) / 32) * Integer.BYTES;
+        if (stringTableOffset < columnsEnd || stringTableOffset + (long) Integer.BYTES > capacity) {
+            throw new IOException("Binary layout file is truncated or corrupt (string table offset " + stringTableOffset + ").");
+        }
+        this.stringCount = buffer.getInt(stringTableOffset);
+        final long stringBytesStart = stringTableOffset + (2L + stringCount) * Integer.BYTES;
+        if (stringCount < 0 || stringBytesStart > capacity) {
+            throw new IOException("Binary layout file is truncated or corrupt (string table size " + stringCount + ").");
+        }
+        if (dockingPos < stringBytesStart || dockingPos + 2L * dockingCount * Integer.BYTES > capacity) {
+            throw new IOException("Binary layout file is truncated or corrupt (docking offset " + dockingPos + ").");
+        }
+        this.stringOffsetsPos = stringTableOffset + Integer.BYTES;
+        this.stringBytesPos = (int) stringBytesStart;
+    }
+
+    /**
+     * Maps the given layout file read-only.
+     *
+     * @param file The binary layout file.
+     * @return A reader backed by the mapping; close it to release the channel.
+     * @throws IOException If the file cannot be mapped or has an invalid header.
+     */
+    public static BinaryLayoutReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinaryLayoutReader(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public int rollWidth() {
+        return rollWidth;
+    }
+
+    public int totalHeight() {
+        return totalHeight;
+    }
+
+    public double utilization() {
+        return utilization;
+    }
+
+    public int orderCount() {
+        return orderCount;
+    }
+
+    public int dockingPointCount() {
+        return dockingCount;
+    }
+
+    // --- Column accessors (index i refers to the y_LU-sorted order position) ---
+
+    public int xLU(int i) {
+        return column(0, i);
+    }
+
+    public int yLU(int i) {
+        return column(1, i);
+    }
+
+    public int xRO(int i) {
+        return column(2, i);
+    }
+
+    public int yRO(int i) {
+        return column(3, i);
+    }
+
+    public int id(int i) {
+        return column(4, i);
+    }
+
+    public boolean isRotated(int i) {
+        Objects.checkIndex(i, orderCount);
+        int word = buffer.getInt(HEADER_SIZE + (6 * orderCount + (i >>> 5)) * Integer.BYTES);
+        return (word & (1 << (i & 31))) != 0;
+    }
+
+    public String description(int i) {
+        int index = Objects.checkIndex(column(5, i), stringCount);
+        int start = buffer.getInt(stringOffsetsPos + index * Integer.BYTES);
+        int end = buffer.getInt(stringOffsetsPos + (index + 1) * Integer.BYTES);
+        Objects.checkFromToIndex(start, end, dockingPos - stringBytesPos); // Strings end where the docking points start
+        byte[] bytes = new byte[end - start];
+        buffer.get(stringBytesPos + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int dockingPointX(int j) {
+        Objects.checkIndex(j, dockingCount);
+        return buffer.getInt(dockingPos + j * Integer.BYTES);
+    }
+
+    public int dockingPointY(int j) {
+        Objects.checkIndex(j, dockingCount);
+        return buffer.getInt(dockingPos + (dockingCount + j) * Integer.BYTES);
+    }
+
+    /**
+     * Finds all orders whose rectangle intersects the horizontal band y in [fromY, toY].
+     * Uses a binary search on the sorted y_LU column and only scans the candidates that can
+     * reach into the band (y_LU within maxOrderHeight below it), without decoding any strings.
+     *
+     * @param fromY Lower bound of the band (inclusive).
+     * @param toY   Upper bound of the band (inclusive).
+     * @return Order indices in y_LU order.
+     */
+    public int[] ordersIntersectingY(int fromY, int toY) {
+        if (fromY > toY || orderCount == 0) {
+            return new int[0];
+        }
+        // Orders with y_LU > toY lie completely above the band
+        int end = firstIndexWithYLUGreaterThan(toY);
+        // Orders with y_LU <= fromY - maxOrderHeight end at or below fromY
+        int start = firstIndexWithYLUGreaterThan((int) Math.max(Integer.MIN_VALUE, (long) fromY - maxOrderHeight));
+
+        int[] hits = new int[end - start];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (yRO(i) > fromY) {
+                hits[count++] = i;
+            }
+        }
+        return Arrays.copyOf(hits, count);
+    }
+
+    private int firstIndexWithYLUGreaterThan(int y) {
+        int low = 0;
+        int high = orderCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (yLU(mid) <= y) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int column(int column, int i) {
+        Objects.checkIndex(i, orderCount);
+        return buffer.getInt(HEADER_SIZE + (column * orderCount + i) * Integer.BYTES);
+    }
+}
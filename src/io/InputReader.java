@@ -19,7 +19,7 @@ public class InputReader {
 
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             description = reader.readLine(); // First line is description
-            String[] config = reader.readLine().trim().split("\\s+");
+            String[] config = split(reader.readLine().trim(), false);
             rollWidth = Integer.parseInt(config[0]);
             optimizationDepth = Integer.parseInt(config[1]);
 
@@ -30,7 +30,7 @@ public class InputReader {
                     continue;
                 }
                 // Tolerate different separators and spacing
-                String[] parts = line.split("\\s*,\\s*|\\s+"); // Split by comma or space, trimming whitespace
+                String[] parts = split(line, true); // Split by comma or space, trimming whitespace
                  if (parts.length >= 4) {
                     try {
                         int width = Integer.parseInt(parts[0]);
@@ -59,4 +59,42 @@ public class InputReader {
 
         return new InputData(description, rollWidth, optimizationDepth, orders);
     }
-}
\ No newline at end of file
+
+    /**
+     * Splits like {@code line.split("\\s*,\\s*|\\s+")} (commas true) or {@code line.split("\\s+")}
+     * (commas false), including the empty fields between two commas, without loading
+     * java.util.regex at startup.
+     */
+    static String[] split(String line, boolean commas) {
+        final List<String> fields = new ArrayList<>();
+        int start = 0; // Start of the current field
+        int i = 0;
+        while (i < line.length()) {
+            int end = i;
+            while (end < line.length() && isSpace(line.charAt(end))) end++;
+            if (commas && end < line.length() && line.charAt(end) == ',') {
+                end++;
+                while (end < line.length() && isSpace(line.charAt(end))) end++;
+            }
+            if (end == i) {
+                i++; // No separator starts here
+                continue;
+            }
+            fields.add(line.substring(start, i));
+            start = end;
+            i = end;
+        }
+        if (fields.isEmpty()) {
+            return new String[]{line}; // No separator at all
+        }
+        fields.add(line.substring(start));
+        int size = fields.size();
+        while (size > 0 && fields.get(size - 1).isEmpty()) size--; // String.split drops trailing empty fields
+        return fields.subList(0, size).toArray(new String[0]);
+    }
+
+    // The characters matched by \s
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -5,151 +5,345 @@ import model.InputData;
 import model.PlacementResult;
 import model.Point;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class OutputWriter {
 
+    // The .out file uses the platform line separator on every line
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    // Reusable per-thread text buffer; the .out and .gnu writers run on different threads
+    private static final ThreadLocal<StringBuilder> TEXT_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+
     public static void writeOutput(String baseFilename, InputData input, PlacementResult result) throws IOException {
-        writeTextOutput(baseFilename + ".out", input, result);
-        writeGnuplotScript(baseFilename + ".gnu", baseFilename + ".png", input, result);
-        runGnuplot(baseFilename + ".gnu"); // Optional: execute gnuplot
+        try {
+            writeOutputAsync(baseFilename, input, result, ForkJoinPool.commonPool()).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
     }
 
-    private static void writeTextOutput(String filename, InputData input, PlacementResult result) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            writer.write(input.description() + "\n");
-            writer.write(String.format(Locale.US, "Benötgte Länge: %.1fcm%n", (double) result.totalHeight() / 10.0)); // mm to cm
-            writer.write(String.format(Locale.US, "Genutzte Flaeche: %.2f%%%n", result.utilization()));
-            writer.newLine();
-            writer.write("Positionierung der Kundenaufträge:\n");
-            // Sort orders by ID for consistent output
-            List<CustomerOrder> sortedOrders = result.placedOrders().stream()
-                    .sorted(Comparator.comparingInt(o -> o.id))
-                    .toList();
-
-            for (CustomerOrder order : sortedOrders) {
-                // x_LU y-LU x_RO y-RO - ID - Beschreibung
-                writer.write(String.format("%d %d %d %d - %d - %s%n",
-                        order.getXLU(), order.getYLU(), order.getXRO(), order.getYRO(),
-                        order.id, order.description));
-            }
-            writer.newLine();
-            writer.write("Verbleibende Andockpunkte:\n");
-            // Sort docking points for consistent output
-            List<Point> sortedPoints = result.finalDockingPoints().stream()
-                    .sorted(Comparator.comparingInt(Point::y).thenComparingInt(Point::x))
-                    .toList();
-            for (Point p : sortedPoints) {
-                writer.write(String.format("%d %d%n", p.x(), p.y()));
-            }
+    /**
+     * Writes the .out, .gnu and .bin files one after another on the calling thread, without
+     * running gnuplot. For small results this is faster than {@link #writeOutput}, which starts
+     * the common pool and the task machinery; Main uses it in --fast mode.
+     *
+     * @param baseFilename The base filename without extension.
+     * @param input        The input data (roll width and description).
+     * @param result       The placement result to write.
+     * @throws IOException If a file cannot be written.
+     */
+    public static void writeFiles(String baseFilename, InputData input, PlacementResult result) throws IOException {
+        final CustomerOrder[] sortedOrders = result.placedOrders().toArray(new CustomerOrder[0]);
+        Arrays.sort(sortedOrders, Comparator.comparingInt(o -> o.id));
+        final Point[] sortedPoints = result.finalDockingPoints().toArray(new Point[0]);
+        Arrays.sort(sortedPoints, Comparator.comparingInt(Point::y).thenComparingInt(Point::x));
+        try {
+            writeTextOutput(baseFilename + ".out", input, result, sortedOrders, sortedPoints);
+            writeGnuplotScript(baseFilename + ".gnu", baseFilename + ".png", input, result, sortedOrders, sortedPoints);
+            writeBinary(baseFilename + ".bin", input, result, sortedPoints);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the layout in the compact binary format read by {@link BinaryLayoutReader}.
+     *
+     * @param filename The target file.
+     * @param input    The input data (roll width).
+     * @param result   The placement result to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeBinaryOutput(String filename, InputData input, PlacementResult result) throws IOException {
+        final Point[] sortedPoints = result.finalDockingPoints().toArray(new Point[0]);
+        Arrays.sort(sortedPoints, Comparator.comparingInt(Point::y).thenComparingInt(Point::x));
+        try {
+            writeBinary(filename, input, result, sortedPoints);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the .out, .gnu and .bin files concurrently and runs gnuplot once they are on disk.
+     * See {@link #writeFilesAsync} for the details.
+     *
+     * @param baseFilename The base filename without extension.
+     * @param input        The input data (roll width and description).
+     * @param result       The placement result to write.
+     * @param executor     The executor running the writers.
+     * @return A future completing when all files are written and gnuplot has run.
+     */
+    public static CompletableFuture<Void> writeOutputAsync(String baseFilename, InputData input, PlacementResult result, Executor executor) {
+        return writeFilesAsync(baseFilename, input, result, executor)
+                .thenCompose(ignored -> runGnuplot(baseFilename + ".gnu")); // Optional: execute gnuplot
+    }
+
+    /**
+     * Writes the .out, .gnu and .bin files concurrently, without running gnuplot.
+     * The result is sorted only once and shared by the writers. The returned future lets the
+     * caller (Main or a bulk run) move on to the next job while the files are being written.
+     *
+     * @param baseFilename The base filename without extension.
+     * @param input        The input data (roll width and description).
+     * @param result       The placement result to write.
+     * @param executor     The executor running the writers.
+     * @return A future completing when all files are written; IO errors surface as UncheckedIOException.
+     */
+    public static CompletableFuture<Void> writeFilesAsync(String baseFilename, InputData input, PlacementResult result, Executor executor) {
+        // Sort once for all files: orders by ID, docking points by y then x
+        final CustomerOrder[] sortedOrders = result.placedOrders().toArray(new CustomerOrder[0]);
+        Arrays.sort(sortedOrders, Comparator.comparingInt(o -> o.id));
+        final Point[] sortedPoints = result.finalDockingPoints().toArray(new Point[0]);
+        Arrays.sort(sortedPoints, Comparator.comparingInt(Point::y).thenComparingInt(Point::x));
+
+        CompletableFuture<Void> text = CompletableFuture.runAsync(() ->
+                writeTextOutput(baseFilename + ".out", input, result, sortedOrders, sortedPoints), executor);
+        CompletableFuture<Void> gnuplot = CompletableFuture.runAsync(() ->
+                writeGnuplotScript(baseFilename + ".gnu", baseFilename + ".png", input, result, sortedOrders, sortedPoints), executor);
+
+        CompletableFuture<Void> binary = CompletableFuture.runAsync(() ->
+                writeBinary(baseFilename + ".bin", input, result, sortedPoints), executor);
+
+        return CompletableFuture.allOf(text, gnuplot, binary);
+    }
+
+    private static void writeTextOutput(String filename, InputData input, PlacementResult result,
+                                        CustomerOrder[] sortedOrders, Point[] sortedPoints) {
+        final String nl = LINE_SEPARATOR;
+        StringBuilder sb = TEXT_BUFFER.get();
+        sb.setLength(0);
+        sb.append(input.description()).append(nl);
+        sb.append(String.format(Locale.US, "Benötgte Länge: %.1fcm", (double) result.totalHeight() / 10.0)).append(nl); // mm to cm
+        sb.append(String.format(Locale.US, "Genutzte Flaeche: %.2f%%", result.utilization())).append(nl);
+        sb.append(nl);
+        sb.append("Positionierung der Kundenaufträge:").append(nl);
+        for (CustomerOrder order : sortedOrders) {
+            // x_LU y-LU x_RO y-RO - ID - Beschreibung
+            sb.append(order.getXLU()).append(' ').append(order.getYLU()).append(' ')
+                    .append(order.getXRO()).append(' ').append(order.getYRO())
+                    .append(" - ").append(order.id).append(" - ").append(order.description).append(nl);
         }
+        sb.append(nl);
+        sb.append("Verbleibende Andockpunkte:").append(nl);
+        for (Point p : sortedPoints) {
+            sb.append(p.x()).append(' ').append(p.y()).append(nl);
+        }
+        writeBuffer(filename, sb);
     }
 
-    private static void writeGnuplotScript(String scriptFilename, String pngFilename, InputData input, PlacementResult result) throws IOException {
+    private static void writeGnuplotScript(String scriptFilename, String pngFilename, InputData input, PlacementResult result,
+                                           CustomerOrder[] sortedOrders, Point[] sortedPoints) {
         int rollWidth = input.rollWidth();
         int ymax = result.totalHeight(); // Use the calculated total height
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(scriptFilename))) {
-            writer.write("reset\n");
-            // Ensure ymax+100 doesn't cause issues if ymax is huge, use calculated range
-            // Size calculation might need adjustment based on desired aspect ratio/clarity
-            writer.write(String.format(Locale.US, "set term png size %d,%d\n", rollWidth, ymax + 100)); // Adjust plot size
-            writer.write(String.format("set output '%s'\n", pngFilename));
-            writer.write(String.format(Locale.US, "set xrange [0:%d]\n", rollWidth));
-            writer.write(String.format(Locale.US, "set yrange [0:%d]\n", ymax));
-            writer.write("set size ratio -1\n"); // Maintain aspect ratio (important!)
-            writer.newLine();
-            // Gnuplot title - use \n for newlines within the title string
-            writer.write("set title \"\\\n"); // Start multi-line title
-            writer.write(escapeGnuplotString(input.description()) + "\\n\\\n");
-            writer.write(String.format(Locale.US, "Benötigte Länge: %.1fcm\\n\\\n", (double) result.totalHeight() / 10.0));
-            writer.write(String.format(Locale.US, "Genutzte Fläche: %.2f%%\"\n", result.utilization()));
-            writer.newLine();
-            writer.write("set style fill transparent solid 0.5 border\n");
-            writer.write("set key noautotitle\n"); // Correct option is 'set key noautotitle' or 'unset key'
-            writer.newLine();
-
-            // Data block for placed orders
-            writer.write("$data <<EOD\n");
-            // Sort orders by ID for consistent coloring (linecolor var)
-            List<CustomerOrder> sortedOrders = result.placedOrders().stream()
-                    .sorted(Comparator.comparingInt(o -> o.id))
-                    .toList();
-            for (CustomerOrder order : sortedOrders) {
-                // Format: x_LU y_LU x_RO y_RO "Description" ID
-                // Ensure description is properly quoted if it contains spaces
-                writer.write(String.format(Locale.US, "%d %d %d %d \"%s\" %d\n",
-                        order.getXLU(), order.getYLU(), order.getXRO(), order.getYRO(),
-                        escapeGnuplotString(order.description), order.id));
+        StringBuilder sb = TEXT_BUFFER.get();
+        sb.setLength(0);
+        sb.append("reset\n");
+        // Size calculation might need adjustment based on desired aspect ratio/clarity
+        sb.append("set term png size ").append(rollWidth).append(',').append(ymax + 100).append('\n'); // Adjust plot size
+        sb.append("set output '").append(pngFilename).append("'\n");
+        sb.append("set xrange [0:").append(rollWidth).append("]\n");
+        sb.append("set yrange [0:").append(ymax).append("]\n");
+        sb.append("set size ratio -1\n"); // Maintain aspect ratio (important!)
+        sb.append('\n');
+        // Gnuplot title - use \n for newlines within the title string
+        sb.append("set title \"\\\n"); // Start multi-line title
+        appendGnuplotEscaped(sb, input.description()).append("\\n\\\n");
+        sb.append(String.format(Locale.US, "Benötigte Länge: %.1fcm\\n\\\n", (double) result.totalHeight() / 10.0));
+        sb.append(String.format(Locale.US, "Genutzte Fläche: %.2f%%\"\n", result.utilization()));
+        sb.append('\n');
+        sb.append("set style fill transparent solid 0.5 border\n");
+        sb.append("set key noautotitle\n"); // Correct option is 'set key noautotitle' or 'unset key'
+        sb.append('\n');
+
+        // Data block for placed orders, sorted by ID for consistent coloring (linecolor var)
+        sb.append("$data <<EOD\n");
+        for (CustomerOrder order : sortedOrders) {
+            // Format: x_LU y_LU x_RO y_RO "Description" ID
+            sb.append(order.getXLU()).append(' ').append(order.getYLU()).append(' ')
+                    .append(order.getXRO()).append(' ').append(order.getYRO()).append(" \"");
+            appendGnuplotEscaped(sb, order.description).append("\" ").append(order.id).append('\n');
+        }
+        sb.append("EOD\n");
+        sb.append('\n');
+
+        // Data block for remaining docking points (visualized as red circles)
+        sb.append("$anchor <<EOD\n");
+        for (Point p : sortedPoints) {
+            sb.append(p.x()).append(' ').append(p.y()).append('\n');
+        }
+        sb.append("EOD\n");
+        sb.append('\n');
+
+        // Plot commands
+        sb.append("plot \\\n");
+        // Rectangles with varying color based on order sequence/ID
+        sb.append("'$data' using (($3-$1)/2+$1):(($4-$2)/2+$2):(($3-$1)/2):(($4-$2)/2):6 with boxxy linecolor var, \\\n");
+        // Labels (using center of box) - Column 5 is description, 6 is ID
+        sb.append("'$data' using (($3-$1)/2+$1):(($4-$2)/2+$2):5 with labels font \"arial,9\", \\\n");
+        // Placed Anchor points (green dots)
+        sb.append("'$anchor' using 1:2 with circles lc rgb \"red\", \\\n");
+        // Free Docking points (red circles)
+        sb.append("'$data' using 1:2 with points lw 8 lc rgb \"dark-green\"\n");
+        writeBuffer(scriptFilename, sb);
+    }
+
+    private static void writeBinary(String filename, InputData input, PlacementResult result, Point[] sortedPoints) {
+        // Orders sorted by y_LU, then x_LU so readers can binary search the y column
+        final CustomerOrder[] orders = result.placedOrders().toArray(new CustomerOrder[0]);
+        Arrays.sort(orders, Comparator.comparingInt(CustomerOrder::getYLU).thenComparingInt(CustomerOrder::getXLU));
+        final int n = orders.length;
+        final int m = sortedPoints.length;
+
+        // Deduplicated string table
+        final Map<String, Integer> stringIndex = new HashMap<>();
+        final List<byte[]> strings = new ArrayList<>();
+        final int[] descriptionIndex = new int[n];
+        int stringBytes = 0;
+        int maxOrderHeight = 0;
+        for (int i = 0; i < n; i++) {
+            String description = orders[i].description == null ? "" : orders[i].description;
+            Integer index = stringIndex.get(description);
+            if (index == null) {
+                index = strings.size();
+                stringIndex.put(description, index);
+                byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+                strings.add(bytes);
+                stringBytes += bytes.length;
+            }
+            descriptionIndex[i] = index;
+            maxOrderHeight = Math.max(maxOrderHeight, orders[i].getYRO() - orders[i].getYLU());
+        }
+
+        final int rotationWords = (n + 31) / 32;
+        final int stringTableOffset = BinaryLayoutReader.HEADER_SIZE + (6 * n + rotationWords) * Integer.BYTES;
+        final int dockingOffset = stringTableOffset + (2 + strings.size()) * Integer.BYTES + stringBytes;
+        final ByteBuffer buffer = ByteBuffer.allocate(dockingOffset + 2 * m * Integer.BYTES);
+
+        // Header
+        buffer.putInt(BinaryLayoutReader.MAGIC).putInt(BinaryLayoutReader.VERSION)
+                .putInt(input.rollWidth()).putInt(result.totalHeight()).putDouble(result.utilization())
+                .putInt(n).putInt(m).putInt(maxOrderHeight)
+                .putInt(stringTableOffset).putInt(dockingOffset);
+
+        // Columns
+        for (CustomerOrder order : orders) buffer.putInt(order.getXLU());
+        for (CustomerOrder order : orders) buffer.putInt(order.getYLU());
+        for (CustomerOrder order : orders) buffer.putInt(order.getXRO());
+        for (CustomerOrder order : orders) buffer.putInt(order.getYRO());
+        for (CustomerOrder order : orders) buffer.putInt(order.id);
+        for (int index : descriptionIndex) buffer.putInt(index);
+        for (int word = 0; word < rotationWords; word++) {
+            int bits = 0;
+            for (int bit = 0; bit < 32 && word * 32 + bit < n; bit++) {
+                if (orders[word * 32 + bit].isRotated) bits |= 1 << bit;
             }
-            writer.write("EOD\n");
-            writer.newLine();
-
-            // Data block for remaining docking points (visualized as red circles)
-            writer.write("$anchor <<EOD\n");
-            // Sort docking points for consistent output
-            List<Point> sortedPoints = result.finalDockingPoints().stream()
-                    .sorted(Comparator.comparingInt(Point::y).thenComparingInt(Point::x))
-                    .toList();
-            for (Point p : sortedPoints) {
-                writer.write(String.format(Locale.US, "%d %d\n", p.x(), p.y()));
+            buffer.putInt(bits);
+        }
+
+        // String table
+        buffer.putInt(strings.size());
+        int offset = 0;
+        buffer.putInt(offset);
+        for (byte[] bytes : strings) {
+            offset += bytes.length;
+            buffer.putInt(offset);
+        }
+        for (byte[] bytes : strings) buffer.put(bytes);
+
+        // Docking points
+        for (Point p : sortedPoints) buffer.putInt(p.x());
+        for (Point p : sortedPoints) buffer.putInt(p.y());
+
+        writeBytes(filename, buffer.flip());
+    }
+
+    // Encodes the buffer as UTF-8 and writes it through a FileChannel
+    private static void writeBuffer(String filename, CharSequence content) {
+        try {
+            CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+            writeBytes(filename, encoder.encode(CharBuffer.wrap(content)));
+        } catch (CharacterCodingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeBytes(String filename, ByteBuffer bytes) {
+        try (FileChannel channel = FileChannel.open(Path.of(filename),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
             }
-            writer.write("EOD\n");
-            writer.newLine();
-
-            // Plot commands
-            writer.write("plot \\\n");
-            // Rectangles with varying color based on order sequence/ID
-            writer.write("'$data' using (($3-$1)/2+$1):(($4-$2)/2+$2):(($3-$1)/2):(($4-$2)/2):6 with boxxy linecolor var, \\\n");
-            // Labels (using center of box) - Column 5 is description, 6 is ID
-            writer.write("'$data' using (($3-$1)/2+$1):(($4-$2)/2+$2):5 with labels font \"arial,9\", \\\n");
-            // Placed Anchor points (green dots)
-            writer.write("'$anchor' using 1:2 with circles lc rgb \"red\", \\\n");
-            // Free Docking points (red circles)
-            writer.write("'$data' using 1:2 with points lw 8 lc rgb \"dark-green\"\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    // Helper to escape strings for gnuplot (e.g., backslashes)
-    private static String escapeGnuplotString(String s) {
-        if (s == null) return "";
+    // Helper to escape strings for gnuplot (e.g., backslashes), appending directly to the buffer
+    private static StringBuilder appendGnuplotEscaped(StringBuilder sb, String s) {
+        if (s == null) return sb;
         // Basic escaping, might need more depending on content
-        return s.replace("\\", "").replace("\"", "\\\"").replace("\n", "\\n");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\' -> { } // Backslashes are dropped
+                case '"' -> sb.append("\\\"");
+                case '\n' -> sb.append("\\n");
+                default -> sb.append(c);
+            }
+        }
+        return sb;
     }
 
-    private static void runGnuplot(String scriptFilename) {
+    /**
+     * Starts gnuplot and returns a future completing when it has exited. No thread waits for the
+     * process: its output goes straight to this process' console, and the exit is observed via
+     * {@link Process#onExit()}, so the writer pool is free for the next job while gnuplot runs.
+     */
+    private static CompletableFuture<Void> runGnuplot(String scriptFilename) {
+        final Process process;
         try {
             // Ensure gnuplot is in the system's PATH
             ProcessBuilder pb = new ProcessBuilder("C:\\Users\\Andi\\Downloads\\gp602-win64-mingw\\gnuplot\\bin\\gnuplot.exe", scriptFilename);
             pb.redirectErrorStream(true); // Combine stdout and stderr
-            Process process = pb.start();
-            // Capture output for debugging
-            try (BufferedReader reader = new BufferedReader(new java.io.InputStreamReader(process.getInputStream()))) {
-                String line;
-                System.out.println("--- gnuplot output ---");
-                while ((line = reader.readLine()) != null) {
-                    System.out.println(line);
-                }
-                System.out.println("----------------------");
-            }
-            int exitCode = process.waitFor();
+            pb.redirectOutput(ProcessBuilder.Redirect.INHERIT); // Shown for debugging, without a reader thread
+            process = pb.start();
+        } catch (IOException e) {
+            System.err.println("Failed to run gnuplot. Make sure it's installed and in the PATH.");
+            System.err.println("Error: " + e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        return process.onExit().thenAccept(exited -> {
+            int exitCode = exited.exitValue();
             if (exitCode == 0) {
                 System.out.println("Gnuplot executed successfully.");
             } else {
                 System.err.println("Gnuplot execution failed with exit code: " + exitCode);
             }
-        } catch (IOException e) {
-            System.err.println("Failed to run gnuplot. Make sure it's installed and in the PATH.");
-            System.err.println("Error: " + e.getMessage());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            System.err.println("Gnuplot execution interrupted.");
-        }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact, immutable placement of a batch: parallel int arrays for the order positions, a rotation
+ * bitset and indices into a shared {@link OrderCatalog}. Used for incumbents and batch results
+ * instead of copying CustomerOrder objects. A y offset is applied as a view ({@link #withOffset})
+ * that shares all arrays with the original.
+ */
+public final class CompactPlacement {
+    private static final OrderCatalog EMPTY_CATALOG = OrderCatalog.of(List.of());
+
+    private final OrderCatalog catalog;
+    private final int[] orderIndex;
+    private final int[] x;
+    private final int[] y;
+    private final BitSet rotated;
+    private final int[] dockX;
+    private final int[] dockY;
+    private final int totalHeight;
+    private final int yOffset;
+    private final boolean provenOptimal;
+
+    private CompactPlacement(OrderCatalog catalog, int[] orderIndex, int[] x, int[] y, BitSet rotated,
+                             int[] dockX, int[] dockY, int totalHeight, int yOffset) {
+        this(catalog, orderIndex, x, y, rotated, dockX, dockY, totalHeight, yOffset, false);
+    }
+
+    private CompactPlacement(OrderCatalog catalog, int[] orderIndex, int[] x, int[] y, BitSet rotated,
+                             int[] dockX, int[] dockY, int totalHeight, int yOffset, boolean provenOptimal) {
+        this.catalog = catalog;
+        this.orderIndex = orderIndex;
+        this.x = x;
+        this.y = y;
+        this.rotated = rotated;
+        this.dockX = dockX;
+        this.dockY = dockY;
+        this.totalHeight = totalHeight;
+        this.yOffset = yOffset;
+        this.provenOptimal = provenOptimal;
+    }
+
+    /**
+     * Captures the placement of the given (placed) orders.
+     *
+     * @param catalog       The catalog all orders belong to.
+     * @param placedOrders  The placed orders in relative coordinates.
+     * @param dockingPoints The docking points still available.
+     * @param totalHeight   The maximum y_RO of the placement.
+     */
+    public static CompactPlacement of(OrderCatalog catalog, List<CustomerOrder> placedOrders,
+                                      Set<Point> dockingPoints, int totalHeight) {
+        int n = placedOrders.size();
+        int[] orderIndex = new int[n];
+        int[] x = new int[n];
+        int[] y = new int[n];
+        BitSet rotated = new BitSet(n);
+        for (int i = 0; i < n; i++) {
+            CustomerOrder order = placedOrders.get(i);
+            orderIndex[i] = catalog.indexOf(order);
+            x[i] = order.placedX;
+            y[i] = order.placedY;
+            if (order.isRotated) rotated.set(i);
+        }
+        int[] dockX = new int[dockingPoints.size()];
+        int[] dockY = new int[dockingPoints.size()];
+        int j = 0;
+        for (Point p : dockingPoints) {
+            dockX[j] = p.x();
+            dockY[j] = p.y();
+            j++;
+        }
+        return new CompactPlacement(catalog, orderIndex, x, y, rotated, dockX, dockY, totalHeight, 0);
+    }
+
+    // Placeholder without orders that only carries an upper bound on the height
+    public static CompactPlacement bound(int height) {
+        return new CompactPlacement(EMPTY_CATALOG, new int[0], new int[0], new int[0], new BitSet(),
+                new int[0], new int[0], height, 0);
+    }
+
+    // View of this placement shifted up by dy; all arrays are shared
+    public CompactPlacement withOffset(int dy) {
+        return new CompactPlacement(catalog, orderIndex, x, y, rotated, dockX, dockY, totalHeight, yOffset + dy, provenOptimal);
+    }
+
+    // View of this placement marked as proven optimal (its height reached a lower bound); all arrays are shared
+    public CompactPlacement asProvenOptimal() {
+        return new CompactPlacement(catalog, orderIndex, x, y, rotated, dockX, dockY, totalHeight, yOffset, true);
+    }
+
+    public boolean isProvenOptimal() {
+        return provenOptimal;
+    }
+
+    public boolean isEmpty() {
+        return orderIndex.length == 0;
+    }
+
+    public int size() {
+        return orderIndex.length;
+    }
+
+    // Height of the placement itself, without the offset
+    public int totalHeight() {
+        return totalHeight;
+    }
+
+    public int yOffset() {
+        return yOffset;
+    }
+
+    // Absolute top edge (offset + height)
+    public int top() {
+        return yOffset + totalHeight;
+    }
+
+    public OrderCatalog catalog() {
+        return catalog;
+    }
+
+    public int orderIndex(int i) {
+        return orderIndex[i];
+    }
+
+    public int x(int i) {
+        return x[i];
+    }
+
+    public int y(int i) {
+        return y[i] + yOffset;
+    }
+
+    public boolean isRotated(int i) {
+        return rotated.get(i);
+    }
+
+    public int width(int i) {
+        return rotated.get(i) ? catalog.height(orderIndex[i]) : catalog.width(orderIndex[i]);
+    }
+
+    public int height(int i) {
+        return rotated.get(i) ? catalog.width(orderIndex[i]) : catalog.height(orderIndex[i]);
+    }
+
+    public long placedArea() {
+        long area = 0;
+        for (int i = 0; i < orderIndex.length; i++) {
+            area += (long) catalog.width(orderIndex[i]) * catalog.height(orderIndex[i]);
+        }
+        return area;
+    }
+
+    // Materializes placed CustomerOrder objects (with the offset applied)
+    public List<CustomerOrder> toCustomerOrders() {
+        List<CustomerOrder> orders = new ArrayList<>(orderIndex.length);
+        for (int i = 0; i < orderIndex.length; i++) {
+            CustomerOrder order = catalog.newOrder(orderIndex[i]);
+            order.setPlacement(x[i], y[i] + yOffset, rotated.get(i));
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    public Set<Point> dockingPoints() {
+        Set<Point> points = new HashSet<>(dockX.length * 2);
+        for (int j = 0; j < dockX.length; j++) {
+            points.add(new Point(dockX[j], dockY[j] + yOffset));
+        }
+        return points;
+    }
+
+    public PlacementResult toPlacementResult(double utilization) {
+        return new PlacementResult(List.copyOf(toCustomerOrders()), Set.copyOf(dockingPoints()), top(), utilization,
+                1, provenOptimal ? 1 : 0);
+    }
+}
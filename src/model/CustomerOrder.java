@@ -17,6 +17,10 @@ public class CustomerOrder {
     public int currentHeight; // Height after potential rotation
     public boolean isRotated = false;
 
+    // Position in the OrderCatalog of the batch (set by OrderCatalog.of, kept by copy()); -1 = none.
+    // Ids are not unique in the input, so placements refer to catalog entries by this position.
+    public int catalogIndex = -1;
+
     public CustomerOrder(int width, int height, int id, String description) {
         this.originalWidth = width;
         this.originalHeight = height;
@@ -100,6 +104,7 @@ public class CustomerOrder {
 
     public CustomerOrder copy() {
         CustomerOrder copy = new CustomerOrder(this.originalWidth, this.originalHeight, this.id, this.description);
+        copy.catalogIndex = this.catalogIndex;
         if (this.isPlaced) {
             copy.setPlacement(this.placedX, this.placedY, this.isRotated);
         }
@@ -0,0 +1,73 @@
+package model;
+
+import java.util.List;
+
+// Shared flyweight of order dimensions, ids and descriptions, referenced by index from placements
+public final class OrderCatalog {
+    private final int[] widths;
+    private final int[] heights;
+    private final int[] ids;
+    private final String[] descriptions;
+
+    private OrderCatalog(int[] widths, int[] heights, int[] ids, String[] descriptions) {
+        this.widths = widths;
+        this.heights = heights;
+        this.ids = ids;
+        this.descriptions = descriptions;
+    }
+
+    // Builds the catalog of a batch and stores every order's position in it (CustomerOrder.catalogIndex)
+    public static OrderCatalog of(List<CustomerOrder> orders) {
+        int n = orders.size();
+        int[] widths = new int[n];
+        int[] heights = new int[n];
+        int[] ids = new int[n];
+        String[] descriptions = new String[n];
+        for (int i = 0; i < n; i++) {
+            CustomerOrder order = orders.get(i);
+            widths[i] = order.originalWidth;
+            heights[i] = order.originalHeight;
+            ids[i] = order.id;
+            descriptions[i] = order.description;
+            order.catalogIndex = i;
+        }
+        return new OrderCatalog(widths, heights, ids, descriptions);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // Catalog entry of an order of this batch (or a copy of one), by position rather than by id
+    public int indexOf(CustomerOrder order) {
+        int index = order.catalogIndex;
+        if (index < 0 || index >= ids.length || ids[index] != order.id
+                || widths[index] != order.originalWidth || heights[index] != order.originalHeight) {
+            throw new IllegalArgumentException("Order " + order.id + " is not part of this catalog.");
+        }
+        return index;
+    }
+
+    public int width(int index) {
+        return widths[index];
+    }
+
+    public int height(int index) {
+        return heights[index];
+    }
+
+    public int id(int index) {
+        return ids[index];
+    }
+
+    public String description(int index) {
+        return descriptions[index];
+    }
+
+    // Creates a fresh, unplaced order object for the catalog entry
+    public CustomerOrder newOrder(int index) {
+        CustomerOrder order = new CustomerOrder(widths[index], heights[index], ids[index], descriptions[index]);
+        order.catalogIndex = index;
+        return order;
+    }
+}
@@ -3,7 +3,17 @@ package model;
 import java.util.List;
 import java.util.Set;
 
-// Result container
+// Result container; provenOptimalBatches counts the batches whose height reached their lower bound
 public record PlacementResult(List<CustomerOrder> placedOrders, Set<Point> finalDockingPoints, int totalHeight,
-                       double utilization) {
+                       double utilization, int batchCount, int provenOptimalBatches) {
+
+    public PlacementResult(List<CustomerOrder> placedOrders, Set<Point> finalDockingPoints, int totalHeight,
+                           double utilization) {
+        this(placedOrders, finalDockingPoints, totalHeight, utilization, 0, 0);
+    }
+
+    /** @return True if there is at least one batch and every batch is proven optimal. */
+    public boolean allBatchesProvenOptimal() {
+        return batchCount > 0 && provenOptimalBatches == batchCount;
+    }
 }
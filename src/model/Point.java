@@ -1,5 +1,22 @@
 package model;
 
 // Simple Point record
-public record Point(int x, int y) {}
+public record Point(int x, int y) {
 
+    // Written out (same values as the generated ones): the generated methods are bootstrapped
+    // via invokedynamic on first use, which costs ~100 ms at startup.
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Point p && x == p.x && y == p.y;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * x + y;
+    }
+
+    @Override
+    public String toString() {
+        return "Point[x=" + x + ", y=" + y + "]";
+    }
+}
@@ -0,0 +1,366 @@
+package verarbeitung;
+
+import model.CompactPlacement;
+import model.CustomerOrder;
+import model.OrderCatalog;
+import model.PlacementResult;
+import model.Point;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Coordinator side of the distributed batch search. Splits the orders into batches like
+ * {@link PlacementService#findOptimalPlacementParallelBatches}, ships every first-level branch of
+ * every batch to connected {@link BatchWorker} JVMs, broadcasts improved incumbent heights between
+ * the workers of the same batch and reassigns the branch of a worker whose connection dies or
+ * stays silent longer than the worker timeout. Workers send every improvement with its placement,
+ * so the bound of a batch is always the height of the best placement held here and stays valid
+ * when the worker that found it dies. The collected batch results are stacked exactly like the
+ * single-JVM service does.
+ */
+public class BatchCoordinator implements AutoCloseable {
+
+    private static final long POLL_INTERVAL_MS = 100;
+    private static final int DEFAULT_WORKER_TIMEOUT_MS = 30_000;
+
+    private final int rollWidth;
+    private final int optimizationDepth;
+    private final PlacementService placementService; // Shared sorting and stacking logic
+    private final ServerSocket serverSocket;
+    private final List<WorkerConnection> connections = new CopyOnWriteArrayList<>();
+    private final List<Process> spawnedWorkers = new ArrayList<>();
+    private volatile int workerTimeoutMillis = DEFAULT_WORKER_TIMEOUT_MS;
+
+    // One unit of work: a first-level branch of a batch
+    private record Job(int jobId, int batchIndex, int firstIndex) {
+    }
+
+    // Per-run state
+    private final LinkedBlockingDeque<Job> pendingJobs = new LinkedBlockingDeque<>();
+    private List<List<CustomerOrder>> batches = List.of();
+    private List<OrderCatalog> batchCatalogs = List.of();
+    private List<AtomicReference<CompactPlacement>> batchBest = List.of(); // Also the bound of each batch
+    private CountDownLatch remainingJobs = new CountDownLatch(0);
+
+    /**
+     * @param rollWidth            The width of the roll.
+     * @param optimizationDepth    The number of orders per batch.
+     * @param useAreaSortHeuristic Whether to sort orders by area within each batch before placement.
+     * @param bindAddress          The address workers connect to (port 0 picks a free port).
+     * @throws IOException If the server socket cannot be bound.
+     */
+    public BatchCoordinator(int rollWidth, int optimizationDepth, boolean useAreaSortHeuristic,
+                            InetSocketAddress bindAddress) throws IOException {
+        this.rollWidth = rollWidth;
+        this.optimizationDepth = optimizationDepth;
+        this.placementService = new PlacementService(rollWidth, optimizationDepth, useAreaSortHeuristic);
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(bindAddress);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Sets how long a worker may stay silent while solving a branch before it is considered dead
+     * and its branch is reassigned. Working workers send a heartbeat every second.
+     *
+     * @param millis The read timeout in milliseconds (default 30 s).
+     */
+    public void setWorkerTimeout(int millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Worker timeout must be positive: " + millis);
+        }
+        this.workerTimeoutMillis = millis;
+    }
+
+    /**
+     * Starts worker JVMs on this host that connect back to the coordinator via loopback.
+     * They use the class path and java binary of the running JVM.
+     *
+     * @param count The number of worker processes.
+     * @throws IOException If a process cannot be started.
+     */
+    public void spawnLocalWorkers(int count) throws IOException {
+        String javaBinary = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath = System.getProperty("java.class.path");
+        for (int i = 0; i < count; i++) {
+            ProcessBuilder pb = new ProcessBuilder(javaBinary, "-cp", classPath, "Main",
+                    "--worker", "127.0.0.1", String.valueOf(getPort()));
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            spawnedWorkers.add(pb.start());
+        }
+        System.out.printf("Spawned %d local worker JVMs.%n", count);
+    }
+
+    /**
+     * Waits until the given number of workers has connected.
+     *
+     * @param count         The number of workers to wait for.
+     * @param timeoutMillis The maximum time to wait in total.
+     * @throws IOException If accepting fails or the timeout elapses.
+     */
+    public void awaitWorkers(int count, long timeoutMillis) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (connections.size() < count) {
+            int remaining = (int) Math.max(1, deadline - System.currentTimeMillis());
+            serverSocket.setSoTimeout(remaining);
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                WorkerConnection connection = new WorkerConnection(socket, connections.size() + 1);
+                connections.add(connection);
+                System.out.printf("Worker %d connected from %s%n", connection.workerId, socket.getRemoteSocketAddress());
+            } catch (SocketTimeoutException e) {
+                throw new IOException("Only " + connections.size() + " of " + count + " workers connected in time.", e);
+            }
+        }
+    }
+
+    /**
+     * Distributes the batch search over all connected workers and stacks the results.
+     *
+     * @param allOrders The list of all customer orders to place.
+     * @return A PlacementResult representing the combined placement.
+     */
+    public PlacementResult findOptimalPlacementDistributed(final List<CustomerOrder> allOrders) {
+        if (connections.isEmpty()) {
+            throw new IllegalStateException("No workers connected.");
+        }
+        allOrders.forEach(CustomerOrder::unsetPlacement); // Reset state
+
+        batches = PlacementService.splitIntoBatches(allOrders, optimizationDepth);
+        if (batches.isEmpty()) {
+            System.out.println("No orders to place.");
+            return new PlacementResult(Collections.emptyList(), Set.of(new Point(0, 0)), 0, 0.0);
+        }
+
+        // 1. Prepare one job per first-level branch
+        List<OrderCatalog> catalogs = new ArrayList<>(batches.size());
+        List<AtomicReference<CompactPlacement>> best = new ArrayList<>(batches.size());
+        pendingJobs.clear();
+        int jobId = 0;
+        for (int b = 0; b < batches.size(); b++) {
+            List<CustomerOrder> batch = batches.get(b);
+            placementService.sortBatchForSearch(batch);
+            catalogs.add(OrderCatalog.of(batch));
+            best.add(new AtomicReference<>(null));
+            for (int i = 0; i < batch.size(); i++) {
+                pendingJobs.add(new Job(jobId++, b, i));
+            }
+        }
+        batchCatalogs = catalogs;
+        batchBest = best;
+        remainingJobs = new CountDownLatch(jobId);
+
+        System.out.printf("Distributing %d branches of %d batches to %d workers...%n",
+                jobId, batches.size(), connections.size());
+
+        // 2. One dispatcher thread per worker connection
+        List<Thread> dispatchers = new ArrayList<>();
+        for (WorkerConnection connection : connections) {
+            if (connection.alive) {
+                Thread thread = new Thread(connection::dispatch, "batch-dispatcher-" + connection.workerId);
+                thread.setDaemon(true);
+                thread.start();
+                dispatchers.add(thread);
+            }
+        }
+
+        // 3. Wait for all branches, failing if every worker is gone
+        try {
+            while (!remainingJobs.await(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                if (connections.stream().noneMatch(c -> c.alive)) {
+                    throw new IllegalStateException("All workers failed; " + remainingJobs.getCount() + " branches left.");
+                }
+            }
+            for (Thread thread : dispatchers) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for workers.", e);
+        }
+        System.out.println("All distributed branches finished.");
+
+        // 4. - 6. Stack, finalize and write back
+        List<CompactPlacement> batchResults = batchBest.stream().map(AtomicReference::get).toList();
+        return placementService.combineBatchResults(batchResults, allOrders);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (WorkerConnection connection : connections) {
+            connection.shutdown();
+        }
+        serverSocket.close();
+        for (Process process : spawnedWorkers) {
+            try {
+                if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                    process.destroy();
+                }
+            } catch (InterruptedException e) {
+                process.destroy();
+                Thread.currentThread().interrupt();
+            }
+        }
+        placementService.close();
+    }
+
+    /** Keeps the placement if it beats the best of its batch and forwards the new bound. */
+    private void offerPlacement(int batchIndex, CompactPlacement placement, WorkerConnection source) {
+        CompactPlacement best = batchBest.get(batchIndex).accumulateAndGet(placement,
+                (existingBest, potentialNew) ->
+                        (existingBest == null || potentialNew.totalHeight() < existingBest.totalHeight())
+                                ? potentialNew : existingBest);
+        if (best == placement) {
+            broadcastBound(batchIndex, placement.totalHeight(), source);
+        }
+    }
+
+    private int boundOf(int batchIndex) {
+        CompactPlacement best = batchBest.get(batchIndex).get();
+        return best == null ? BatchProtocol.NO_BOUND : best.totalHeight();
+    }
+
+    /** Forwards an improved bound of a batch to every other worker currently searching it. */
+    private void broadcastBound(int batchIndex, int height, WorkerConnection source) {
+        for (WorkerConnection connection : connections) {
+            Job job = connection.currentJob;
+            if (connection != source && connection.alive && job != null && job.batchIndex() == batchIndex) {
+                try {
+                    BatchProtocol.writeBound(connection.out, job.jobId(), height);
+                } catch (IOException e) {
+                    System.err.printf("Failed to broadcast bound to worker %d: %s%n", connection.workerId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private final class WorkerConnection {
+        private final Socket socket;
+        private final int workerId;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private volatile boolean alive = true;
+        private volatile Job currentJob;
+
+        private WorkerConnection(Socket socket, int workerId) throws IOException {
+            this.socket = socket;
+            this.workerId = workerId;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        // Sends jobs one at a time and processes the worker's messages until no work is left
+        private void dispatch() {
+            while (remainingJobs.getCount() > 0) {
+                Job job;
+                try {
+                    job = pendingJobs.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (job == null) continue;
+
+                currentJob = job;
+                try {
+                    runJob(job);
+                } catch (IOException e) {
+                    // Worker died or timed out: hand its branch to somebody else. Its improvements
+                    // are already in batchBest, so the bound the branch is reseeded with stays backed.
+                    System.err.printf("Worker %d failed (%s); reassigning branch %d of batch %d.%n",
+                            workerId, e, job.firstIndex(), job.batchIndex() + 1);
+                    alive = false;
+                    pendingJobs.addFirst(job);
+                    closeQuietly();
+                    return;
+                } finally {
+                    currentJob = null;
+                }
+            }
+        }
+
+        private void runJob(Job job) throws IOException {
+            int batchIndex = job.batchIndex();
+            socket.setSoTimeout(workerTimeoutMillis);
+            BatchProtocol.writeJob(out, job.jobId(), rollWidth, job.firstIndex(), boundOf(batchIndex),
+                    batches.get(batchIndex));
+            while (true) {
+                byte type = in.readByte();
+                int jobId = in.readInt();
+                if (jobId != job.jobId()) {
+                    // A worker sends nothing after RESULT or FAILED, so this is a broken stream
+                    throw new IOException("Message type " + type + " for job " + jobId + " while running job " + job.jobId());
+                }
+                if (type == BatchProtocol.HEARTBEAT) {
+                    continue;
+                } else if (type == BatchProtocol.IMPROVED) {
+                    CompactPlacement improved = BatchProtocol.readResult(in, batchCatalogs.get(batchIndex));
+                    if (improved != null) {
+                        offerPlacement(batchIndex, improved, this);
+                    }
+                } else if (type == BatchProtocol.RESULT) {
+                    CompactPlacement result = BatchProtocol.readResult(in, batchCatalogs.get(batchIndex));
+                    if (result != null) {
+                        offerPlacement(batchIndex, result, this);
+                    }
+                    remainingJobs.countDown();
+                    return;
+                } else if (type == BatchProtocol.FAILED) {
+                    // The search itself threw; another worker would fail the same way, so skip the branch
+                    System.err.printf("Worker %d failed on branch %d of batch %d: %s%n",
+                            workerId, job.firstIndex(), batchIndex + 1, in.readUTF());
+                    remainingJobs.countDown();
+                    return;
+                } else {
+                    throw new IOException("Unexpected message type " + type + " for job " + jobId);
+                }
+            }
+        }
+
+        private void shutdown() {
+            if (alive) {
+                try {
+                    synchronized (out) {
+                        out.writeByte(BatchProtocol.SHUTDOWN);
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    System.err.printf("Failed to shut down worker %d: %s%n", workerId, e.getMessage());
+                }
+            }
+            alive = false;
+            closeQuietly();
+        }
+
+        private void closeQuietly() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Connection is being discarded anyway
+            }
+        }
+    }
+}
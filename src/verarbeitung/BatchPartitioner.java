@@ -0,0 +1,184 @@
+package verarbeitung;
+
+import model.CustomerOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Repartitions the orders into batches before the parallel search, so that orders which fill the
+ * roll width exactly together end up in the same batch instead of being split by file order.
+ * <p>
+ * Orders are bucketed by width (the side that fits the roll, the original width if both do) and
+ * every bucket is sorted by height, descending. Rows are then matched greedily from the widest
+ * order down: a width that divides the roll width forms a row with orders of the same width,
+ * otherwise the complement is looked up as one width (pair) or two widths (triple). Taking the
+ * tallest order of every bucket keeps the heights within a row similar. Rows are kept whole
+ * inside a batch; orders without an exact complement fill the free slots of the batches and then
+ * new batches, in input order.
+ * <p>
+ * Bucketing and sorting run in parallel. The matching is sequential: every row takes orders from
+ * buckets that other widths complete their rows from as well, and the greedy widest-first order
+ * decides which width gets them. It is linear in the number of orders times the number of
+ * distinct widths per unmatched order, so 100k orders take well under a second.
+ */
+public final class BatchPartitioner {
+
+    private BatchPartitioner() {
+    }
+
+    /**
+     * Splits the orders into batches of at most batchSize copies each, grouping complementary
+     * widths.
+     *
+     * @param allOrders The orders in input order.
+     * @param rollWidth The roll width.
+     * @param batchSize The maximum number of orders per batch.
+     * @return Independent, mutable batch lists holding copies of the orders.
+     */
+    public static List<List<CustomerOrder>> partition(final List<CustomerOrder> allOrders, final int rollWidth, final int batchSize) {
+        if (rollWidth <= 0) {
+            throw new IllegalArgumentException("Roll width must be positive.");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+
+        // --- 1. Bucket by fitting width (parallel), tallest first ---
+        final ConcurrentMap<Integer, List<CustomerOrder>> grouped = allOrders.parallelStream()
+                .filter(o -> fittingWidth(o, rollWidth) > 0)
+                .collect(Collectors.groupingByConcurrent(o -> fittingWidth(o, rollWidth)));
+        final Comparator<CustomerOrder> tallestFirst = Comparator
+                .comparingInt((CustomerOrder o) -> otherSide(o, rollWidth)).reversed()
+                .thenComparingInt(CustomerOrder::getId);
+        grouped.values().parallelStream().forEach(bucket -> bucket.sort(tallestFirst));
+
+        final List<CustomerOrder>[] buckets = toBucketArray(grouped, rollWidth);
+        final int[] next = new int[rollWidth + 1]; // Next unused order per bucket
+
+        // --- 2. Match rows that fill the roll width exactly ---
+        final List<List<CustomerOrder>> rows = new ArrayList<>();
+        for (int width = rollWidth; width >= 1; width--) {
+            while (remaining(buckets, next, width) > 0) {
+                List<CustomerOrder> row = matchRow(buckets, next, width, rollWidth, batchSize);
+                if (row == null) break; // No complement for this width left
+                rows.add(row);
+            }
+        }
+
+        // --- 3. Rows of the same widths next to each other (they stack into columns), then pack whole rows into batches ---
+        rows.sort(Comparator.comparingInt((List<CustomerOrder> row) -> fittingWidth(row.get(0), rollWidth)).reversed()
+                .thenComparingInt(List::size)
+                .thenComparing(Comparator.comparingInt((List<CustomerOrder> row) -> rowHeight(row, rollWidth)).reversed()));
+        final List<List<CustomerOrder>> batches = new ArrayList<>();
+        List<CustomerOrder> current = new ArrayList<>(batchSize);
+        for (List<CustomerOrder> row : rows) {
+            if (current.size() + row.size() > batchSize) {
+                batches.add(current);
+                current = new ArrayList<>(batchSize);
+            }
+            for (CustomerOrder order : row) {
+                current.add(order.copy());
+            }
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+
+        // --- 4. Unmatched orders (and orders that fit in no orientation) fill the free slots, in input order ---
+        final Set<CustomerOrder> matched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<CustomerOrder> row : rows) {
+            matched.addAll(row);
+        }
+        int open = 0; // First batch that may still have a free slot
+        for (CustomerOrder order : allOrders) {
+            if (matched.contains(order)) continue;
+            while (open < batches.size() && batches.get(open).size() == batchSize) {
+                open++;
+            }
+            if (open == batches.size()) {
+                batches.add(new ArrayList<>(batchSize));
+            }
+            batches.get(open).add(order.copy());
+        }
+        return batches;
+    }
+
+    // Takes one order of the given width and completes the row, or returns null if impossible
+    private static List<CustomerOrder> matchRow(List<CustomerOrder>[] buckets, int[] next, int width, int rollWidth, int batchSize) {
+        final int rest = rollWidth - width;
+        if (rest == 0) {
+            return List.of(take(buckets, next, width));
+        }
+        // Same width repeated (e.g. 3 x 300 = 900)
+        if (rollWidth % width == 0) {
+            int count = rollWidth / width;
+            if (count <= batchSize && remaining(buckets, next, width) >= count) {
+                List<CustomerOrder> row = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    row.add(take(buckets, next, width));
+                }
+                return row;
+            }
+        }
+        // Pair: width + rest
+        if (batchSize >= 2 && rest <= width && remaining(buckets, next, rest) >= (rest == width ? 2 : 1)) {
+            CustomerOrder first = take(buckets, next, width);
+            return List.of(first, take(buckets, next, rest));
+        }
+        // Triple: width + b + c with c <= b <= width, so every combination is only found once
+        for (int b = batchSize < 3 ? 0 : Math.min(width, rest - 1); b >= 1; b--) {
+            int c = rest - b;
+            if (c > b) break;
+            int needB = 1 + (b == width ? 1 : 0);
+            int needC = 1 + (c == width ? 1 : 0) + (c == b ? 1 : 0);
+            if (remaining(buckets, next, b) >= needB && remaining(buckets, next, c) >= needC) {
+                CustomerOrder first = take(buckets, next, width);
+                CustomerOrder second = take(buckets, next, b);
+                return List.of(first, second, take(buckets, next, c));
+            }
+        }
+        return null;
+    }
+
+    // The side used as width: the original width if it fits, else the height, 0 if neither fits
+    private static int fittingWidth(CustomerOrder order, int rollWidth) {
+        if (order.originalWidth <= rollWidth) return order.originalWidth;
+        return order.originalHeight <= rollWidth ? order.originalHeight : 0;
+    }
+
+    private static int otherSide(CustomerOrder order, int rollWidth) {
+        return fittingWidth(order, rollWidth) == order.originalWidth ? order.originalHeight : order.originalWidth;
+    }
+
+    private static int rowHeight(List<CustomerOrder> row, int rollWidth) {
+        int height = 0;
+        for (CustomerOrder order : row) {
+            height = Math.max(height, otherSide(order, rollWidth));
+        }
+        return height;
+    }
+
+    private static int remaining(List<CustomerOrder>[] buckets, int[] next, int width) {
+        List<CustomerOrder> bucket = buckets[width];
+        return bucket == null ? 0 : bucket.size() - next[width];
+    }
+
+    private static CustomerOrder take(List<CustomerOrder>[] buckets, int[] next, int width) {
+        return buckets[width].get(next[width]++);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<CustomerOrder>[] toBucketArray(Map<Integer, List<CustomerOrder>> grouped, int rollWidth) {
+        List<CustomerOrder>[] buckets = new List[rollWidth + 1];
+        grouped.forEach((width, bucket) -> buckets[width] = bucket);
+        return buckets;
+    }
+}
@@ -0,0 +1,171 @@
+package verarbeitung;
+
+import model.CompactPlacement;
+import model.CustomerOrder;
+import model.OrderCatalog;
+import model.Point;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wire format shared by {@link BatchCoordinator} and {@link BatchWorker}.
+ * Every message starts with a one byte type; all numbers are written with DataOutputStream.
+ * Placed orders are referenced by their index in the job's order list, as ids need not be unique.
+ * A worker reports an improvement together with its placement (IMPROVED), so every bound the
+ * coordinator forwards is backed by a placement it already holds, even if the worker dies later.
+ *
+ * <pre>
+ * JOB       jobId, rollWidth, firstIndex, bound, orderCount, (width, height, id, UTF description)*
+ * BOUND     jobId, height                              (coordinator to worker)
+ * IMPROVED  jobId, true, height, ...                   (worker to coordinator, body as RESULT)
+ * RESULT    jobId, found, [height, count, (index, x, y, rotated)*, pointCount, (x, y)*]
+ * FAILED    jobId, UTF message                         (the branch search threw)
+ * HEARTBEAT jobId                                      (worker to coordinator while solving)
+ * SHUTDOWN
+ * </pre>
+ */
+final class BatchProtocol {
+
+    static final byte JOB = 1;
+    static final byte BOUND = 2;
+    static final byte RESULT = 3;
+    static final byte SHUTDOWN = 4;
+    static final byte IMPROVED = 5;
+    static final byte FAILED = 6;
+    static final byte HEARTBEAT = 7;
+
+    /** Bound value meaning "no incumbent yet". */
+    static final int NO_BOUND = Integer.MAX_VALUE;
+
+    private BatchProtocol() {
+    }
+
+    static void writeJob(DataOutputStream out, int jobId, int rollWidth, int firstIndex, int bound,
+                         List<CustomerOrder> orders) throws IOException {
+        synchronized (out) {
+            out.writeByte(JOB);
+            out.writeInt(jobId);
+            out.writeInt(rollWidth);
+            out.writeInt(firstIndex);
+            out.writeInt(bound);
+            out.writeInt(orders.size());
+            for (CustomerOrder order : orders) {
+                out.writeInt(order.originalWidth);
+                out.writeInt(order.originalHeight);
+                out.writeInt(order.id);
+                out.writeUTF(order.description == null ? "" : order.description);
+            }
+            out.flush();
+        }
+    }
+
+    static List<CustomerOrder> readOrders(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<CustomerOrder> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int width = in.readInt();
+            int height = in.readInt();
+            int id = in.readInt();
+            orders.add(new CustomerOrder(width, height, id, in.readUTF()));
+        }
+        return orders;
+    }
+
+    static void writeBound(DataOutputStream out, int jobId, int height) throws IOException {
+        synchronized (out) {
+            out.writeByte(BOUND);
+            out.writeInt(jobId);
+            out.writeInt(height);
+            out.flush();
+        }
+    }
+
+    static void writeResult(DataOutputStream out, int jobId, CompactPlacement result) throws IOException {
+        writePlacement(out, RESULT, jobId, result);
+    }
+
+    static void writeImproved(DataOutputStream out, int jobId, CompactPlacement placement) throws IOException {
+        writePlacement(out, IMPROVED, jobId, placement);
+    }
+
+    static void writeFailed(DataOutputStream out, int jobId, String message) throws IOException {
+        synchronized (out) {
+            out.writeByte(FAILED);
+            out.writeInt(jobId);
+            out.writeUTF(message == null ? "" : message);
+            out.flush();
+        }
+    }
+
+    static void writeHeartbeat(DataOutputStream out, int jobId) throws IOException {
+        synchronized (out) {
+            out.writeByte(HEARTBEAT);
+            out.writeInt(jobId);
+            out.flush();
+        }
+    }
+
+    private static void writePlacement(DataOutputStream out, byte type, int jobId, CompactPlacement result) throws IOException {
+        synchronized (out) {
+            out.writeByte(type);
+            out.writeInt(jobId);
+            out.writeBoolean(result != null);
+            if (result != null) {
+                out.writeInt(result.totalHeight());
+                out.writeInt(result.size());
+                for (int i = 0; i < result.size(); i++) {
+                    out.writeInt(result.orderIndex(i));
+                    out.writeInt(result.x(i));
+                    out.writeInt(result.y(i));
+                    out.writeBoolean(result.isRotated(i));
+                }
+                Set<Point> points = result.dockingPoints();
+                out.writeInt(points.size());
+                for (Point p : points) {
+                    out.writeInt(p.x());
+                    out.writeInt(p.y());
+                }
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Reads the body of a RESULT or IMPROVED message (after the jobId) and rebuilds the placement against the
+     * catalog of the batch the job was created from.
+     *
+     * @return The placement, or null if the worker found nothing better than its bound.
+     */
+    static CompactPlacement readResult(DataInputStream in, OrderCatalog catalog) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int height = in.readInt();
+        int count = in.readInt();
+        List<CustomerOrder> placed = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = in.readInt();
+            int x = in.readInt();
+            int y = in.readInt();
+            boolean rotated = in.readBoolean();
+            if (index < 0 || index >= catalog.size()) {
+                throw new IOException("Worker returned unknown order index " + index);
+            }
+            CustomerOrder order = catalog.newOrder(index);
+            order.setPlacement(x, y, rotated);
+            placed.add(order);
+        }
+        int pointCount = in.readInt();
+        Set<Point> points = new HashSet<>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            points.add(new Point(in.readInt(), in.readInt()));
+        }
+        return CompactPlacement.of(catalog, placed, points, height);
+    }
+}
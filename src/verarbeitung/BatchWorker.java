@@ -0,0 +1,158 @@
+package verarbeitung;
+
+import model.CustomerOrder;
+import model.CompactPlacement;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Worker side of the distributed batch search. Connects to a {@link BatchCoordinator}, solves the
+ * first-level branches it is sent one at a time and reports improved incumbents (with their
+ * placement) while searching, so the coordinator can broadcast their heights to the other workers
+ * of the same batch. Heartbeats tell the coordinator the worker is still alive during long
+ * searches; a branch whose search throws is answered with FAILED instead of a result.
+ */
+public class BatchWorker implements Runnable {
+
+    private static final long BOUND_REPORT_INTERVAL_MS = 100;
+    private static final long HEARTBEAT_INTERVAL_MS = 1_000;
+
+    private final String host;
+    private final int port;
+
+    // State of the job currently being solved (read by the socket reader thread)
+    private volatile int currentJobId = -1;
+    private volatile AtomicReference<CompactPlacement> currentIncumbent;
+
+    /**
+     * @param host The coordinator host.
+     * @param port The coordinator port.
+     */
+    public BatchWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public void run() {
+        ExecutorService solver = Executors.newSingleThreadExecutor();
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            System.out.printf("Worker connected to coordinator %s:%d%n", host, port);
+
+            while (true) {
+                byte type = in.readByte();
+                if (type == BatchProtocol.JOB) {
+                    int jobId = in.readInt();
+                    int rollWidth = in.readInt();
+                    int firstIndex = in.readInt();
+                    int bound = in.readInt();
+                    List<CustomerOrder> orders = BatchProtocol.readOrders(in);
+                    AtomicReference<CompactPlacement> incumbent = new AtomicReference<>(
+                            bound == BatchProtocol.NO_BOUND ? null : CompactPlacement.bound(bound));
+                    currentIncumbent = incumbent;
+                    currentJobId = jobId;
+                    solver.execute(() -> solveJob(out, reporter, solver, jobId, rollWidth, firstIndex, orders, incumbent));
+                } else if (type == BatchProtocol.BOUND) {
+                    int jobId = in.readInt();
+                    int height = in.readInt();
+                    AtomicReference<CompactPlacement> incumbent = currentIncumbent;
+                    if (jobId == currentJobId && incumbent != null) {
+                        // Tighten the bound; only strictly better values replace the incumbent
+                        incumbent.accumulateAndGet(CompactPlacement.bound(height),
+                                (existing, bound) -> (existing == null || bound.totalHeight() < existing.totalHeight())
+                                        ? bound : existing);
+                    }
+                } else if (type == BatchProtocol.SHUTDOWN) {
+                    System.out.println("Worker received shutdown.");
+                    break;
+                } else {
+                    throw new IOException("Unknown message type " + type);
+                }
+            }
+        } catch (EOFException e) {
+            System.out.println("Coordinator closed the connection.");
+        } catch (IOException e) {
+            System.err.println("Worker connection failed: " + e.getMessage());
+        } finally {
+            solver.shutdownNow();
+            reporter.shutdownNow();
+        }
+    }
+
+    private void solveJob(DataOutputStream out, ScheduledExecutorService reporter, ExecutorService solver, int jobId,
+                          int rollWidth, int firstIndex, List<CustomerOrder> orders, AtomicReference<CompactPlacement> incumbent) {
+        // Orders arrive already sorted by the coordinator, so the heuristic sort stays off here.
+        // A branch is searched sequentially, the executor is never used for fan-out.
+        PlacementService service = new PlacementService(rollWidth, orders.size(), false, solver, false);
+        int[] lastReported = {heightOf(incumbent.get())};
+        // Set under the lock of out once RESULT or FAILED is written; no report may follow it
+        boolean[] finished = {false};
+        // Bound-only incumbents (from the coordinator) are empty and never reported back
+        ScheduledFuture<?> boundReporter = reporter.scheduleAtFixedRate(() -> {
+            CompactPlacement best = incumbent.get();
+            if (best != null && !best.isEmpty() && best.totalHeight() < lastReported[0]) {
+                lastReported[0] = best.totalHeight();
+                try {
+                    synchronized (out) {
+                        if (!finished[0]) BatchProtocol.writeImproved(out, jobId, best);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Failed to report improvement: " + e.getMessage());
+                }
+            }
+        }, BOUND_REPORT_INTERVAL_MS, BOUND_REPORT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> heartbeat = reporter.scheduleAtFixedRate(() -> {
+            try {
+                synchronized (out) {
+                    if (!finished[0]) BatchProtocol.writeHeartbeat(out, jobId);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to send heartbeat: " + e.getMessage());
+            }
+        }, HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        try {
+            CompactPlacement result = service.optimizeFirstLevelBranch(orders, firstIndex, incumbent);
+            synchronized (out) {
+                finished[0] = true;
+                BatchProtocol.writeResult(out, jobId, result);
+            }
+        } catch (RuntimeException | Error e) {
+            // Without an answer the coordinator would wait for this job until its read timeout
+            System.err.println("Job " + jobId + " failed: " + e);
+            try {
+                synchronized (out) {
+                    finished[0] = true;
+                    BatchProtocol.writeFailed(out, jobId, e.toString());
+                }
+            } catch (IOException io) {
+                System.err.println("Failed to report failure of job " + jobId + ": " + io.getMessage());
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to send result for job " + jobId + ": " + e.getMessage());
+        } finally {
+            boundReporter.cancel(false);
+            heartbeat.cancel(false);
+        }
+    }
+
+    private static int heightOf(CompactPlacement result) {
+        return result == null ? BatchProtocol.NO_BOUND : result.totalHeight();
+    }
+}
@@ -0,0 +1,148 @@
+package verarbeitung;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Structured scope for the {@link ExecutionMode#STRUCTURED} search: every forked task runs in its
+ * own virtual thread, and the scope does not end before all of them have ended. With
+ * shutdownOnFailure, the first failing task shuts the scope down: the siblings are interrupted and
+ * the shutdown hook tells the search to stop, so no branch outlives its batch.
+ * <p>
+ * Follows StructuredTaskScope.ShutdownOnFailure (fork, join, throwIfFailed, close), which is
+ * still a preview API in JDK 21. Virtual threads run on the JDK's carrier pool, which is bounded
+ * by the number of processors, so the compute stays bounded however many jobs are in flight.
+ * Only the thread that opened the scope may fork and join.
+ */
+final class BranchScope implements AutoCloseable {
+
+    /** State of a forked task. */
+    enum State { UNAVAILABLE, SUCCESS, FAILED }
+
+    /** Handle to the result of a forked task, available after {@link #join()}. */
+    static final class Subtask<T> implements Supplier<T> {
+        private volatile State state = State.UNAVAILABLE;
+        private volatile T result;
+        private volatile Throwable exception;
+
+        State state() {
+            return state;
+        }
+
+        @Override
+        public T get() {
+            if (state != State.SUCCESS) {
+                throw new IllegalStateException("Subtask did not complete successfully: " + state);
+            }
+            return result;
+        }
+
+        Throwable exception() {
+            return exception;
+        }
+    }
+
+    private static final ThreadFactory VIRTUAL_THREADS = Thread.ofVirtual().name("placement-", 0).factory();
+
+    private final boolean shutdownOnFailure;
+    private final Runnable onShutdown;
+    private final Thread owner = Thread.currentThread();
+    private final Queue<Thread> threads = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private volatile boolean shutdown;
+
+    /**
+     * @param shutdownOnFailure True to shut the scope down when a task fails.
+     * @param onShutdown        Called once on shutdown, e.g. to make the running tasks stop searching.
+     */
+    BranchScope(boolean shutdownOnFailure, Runnable onShutdown) {
+        this.shutdownOnFailure = shutdownOnFailure;
+        this.onShutdown = onShutdown;
+    }
+
+    /** Starts the task in a new virtual thread; after shutdown the task is not started. */
+    <T> Subtask<T> fork(Callable<T> task) {
+        ensureOwner();
+        final Subtask<T> subtask = new Subtask<>();
+        if (shutdown) {
+            return subtask;
+        }
+        Thread thread = VIRTUAL_THREADS.newThread(() -> {
+            try {
+                subtask.result = task.call();
+                subtask.state = State.SUCCESS;
+            } catch (Throwable e) {
+                subtask.exception = e;
+                subtask.state = State.FAILED;
+                if (firstFailure.compareAndSet(null, e) && shutdownOnFailure) {
+                    shutdown();
+                }
+            }
+        });
+        threads.add(thread);
+        thread.start();
+        return subtask;
+    }
+
+    /** Waits for all forked tasks to finish (after a shutdown, the interrupted ones too). */
+    void join() throws InterruptedException {
+        ensureOwner();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /** Throws the exception of the first failed task, if any. */
+    void throwIfFailed() throws ExecutionException {
+        Throwable failure = firstFailure.get();
+        if (failure != null) {
+            throw new ExecutionException(failure);
+        }
+    }
+
+    /** Stops the scope: tasks not yet forked are not started, running tasks are interrupted. */
+    void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        onShutdown.run();
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+    }
+
+    /** Shuts down if tasks are still running and waits for all of them; never leaves threads behind. */
+    @Override
+    public void close() {
+        ensureOwner();
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            if (thread.isAlive()) {
+                shutdown();
+            }
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Only the thread that opened the scope may use it.");
+        }
+    }
+}
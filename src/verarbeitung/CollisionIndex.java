@@ -0,0 +1,26 @@
+package verarbeitung;
+
+/**
+ * Per-branch index of the rectangles placed so far, used by the recursive search instead of
+ * scanning the CustomerOrder list. Rectangles are added and removed in stack order, matching the
+ * depth-first placement and backtracking of a branch. Implementations are not thread-safe; every
+ * first-level branch owns its own index.
+ */
+public interface CollisionIndex {
+
+    /** Pushes the rectangle [x1, x2) x [y1, y2). */
+    void push(int x1, int y1, int x2, int y2);
+
+    /** Removes the most recently pushed rectangle. */
+    void pop();
+
+    /** @return True if [x1, x2) x [y1, y2) overlaps the interior of any indexed rectangle. */
+    boolean overlapsAny(int x1, int y1, int x2, int y2);
+
+    /** @return True if the point lies inside (left/bottom edge inclusive) any indexed rectangle. */
+    boolean covers(int px, int py);
+
+    /** Called once the branch is done with the index; it must not be used afterwards. */
+    default void release() {
+    }
+}
@@ -0,0 +1,70 @@
+package verarbeitung;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Selects how the recursive search checks candidate placements for overlaps and docking points
+ * for coverage.
+ */
+public enum CollisionMode {
+    /** Scan the list of placed CustomerOrder objects (original behaviour). */
+    OBJECTS,
+    /** Scalar scan over packed int coordinate arrays. */
+    SCALAR,
+    /** SIMD scan via jdk.incubator.vector; falls back to SCALAR if the module or the src-vector classes are missing. */
+    VECTOR,
+    /** Occupancy bitset raster with coarse tiles, taken from a pool and reused across branches. */
+    RASTER;
+
+    // Constructor of VectorCollisionIndex(int), or null without the module or the class (built from src-vector)
+    private static final MethodHandle VECTOR_INDEX_CONSTRUCTOR = findVectorIndexConstructor();
+
+    /** @return True if VECTOR really uses SIMD in this JVM. */
+    public static boolean isVectorAvailable() {
+        return VECTOR_INDEX_CONSTRUCTOR != null;
+    }
+
+    /**
+     * Creates a fresh per-branch index, or null for {@link #OBJECTS}.
+     *
+     * For {@link #RASTER} this is an empty raster borrowed from the pool; the branch hands it back
+     * with {@link CollisionIndex#release()}.
+     *
+     * @param capacity  The expected number of rectangles (batch size).
+     * @param rollWidth The roll width (raster width).
+     */
+    public CollisionIndex newIndex(int capacity, int rollWidth) {
+        return switch (this) {
+            case OBJECTS -> null;
+            case SCALAR -> new PackedCollisionIndex(capacity);
+            case VECTOR -> VECTOR_INDEX_CONSTRUCTOR != null ? newVectorIndex(capacity) : new PackedCollisionIndex(capacity);
+            case RASTER -> RasterCollisionIndex.borrow(capacity, rollWidth);
+        };
+    }
+
+    private static CollisionIndex newVectorIndex(int capacity) {
+        try {
+            return (CollisionIndex) VECTOR_INDEX_CONSTRUCTOR.invoke(capacity);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot create the vector collision index.", e);
+        }
+    }
+
+    // Loaded by name so the main sources compile without jdk.incubator.vector
+    private static MethodHandle findVectorIndexConstructor() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            Class<?> type = Class.forName("verarbeitung.VectorCollisionIndex");
+            return MethodHandles.lookup().findConstructor(type, MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(CollisionIndex.class, int.class));
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            return null; // Built without src-vector
+        }
+    }
+}
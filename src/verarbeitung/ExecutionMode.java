@@ -0,0 +1,14 @@
+package verarbeitung;
+
+/**
+ * Selects how PlacementService runs batches and first-level branches in parallel.
+ */
+public enum ExecutionMode {
+    /** CompletableFuture tasks on the service's executor (original behaviour). */
+    EXECUTOR,
+    /**
+     * One virtual thread per batch and per first-level branch in nested {@link BranchScope}s: a
+     * failing branch cancels its siblings, and the compute runs on the bounded carrier pool.
+     */
+    STRUCTURED
+}
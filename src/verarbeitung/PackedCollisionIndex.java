@@ -0,0 +1,65 @@
+package verarbeitung;
+
+import java.util.Arrays;
+
+/**
+ * Scalar collision index over packed int coordinate arrays (structure of arrays).
+ * Also the base of the SIMD VectorCollisionIndex (source root src-vector), which only replaces the scans.
+ */
+class PackedCollisionIndex implements CollisionIndex {
+
+    protected int[] xl;
+    protected int[] yl;
+    protected int[] xr;
+    protected int[] yr;
+    protected int count;
+
+    PackedCollisionIndex(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 4);
+        xl = new int[capacity];
+        yl = new int[capacity];
+        xr = new int[capacity];
+        yr = new int[capacity];
+    }
+
+    @Override
+    public void push(int x1, int y1, int x2, int y2) {
+        if (count == xl.length) {
+            int capacity = count * 2;
+            xl = Arrays.copyOf(xl, capacity);
+            yl = Arrays.copyOf(yl, capacity);
+            xr = Arrays.copyOf(xr, capacity);
+            yr = Arrays.copyOf(yr, capacity);
+        }
+        xl[count] = x1;
+        yl[count] = y1;
+        xr[count] = x2;
+        yr[count] = y2;
+        count++;
+    }
+
+    @Override
+    public void pop() {
+        count--;
+    }
+
+    @Override
+    public boolean overlapsAny(int x1, int y1, int x2, int y2) {
+        for (int i = 0; i < count; i++) {
+            if (x1 < xr[i] && x2 > xl[i] && y1 < yr[i] && y2 > yl[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean covers(int px, int py) {
+        for (int i = 0; i < count; i++) {
+            if (px >= xl[i] && px < xr[i] && py >= yl[i] && py < yr[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package verarbeitung;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JDK Flight Recorder events of the placement search. They cost nothing unless a recording is
+ * running, e.g. started with
+ * <pre>
+ *   jcmd &lt;pid&gt; JFR.start name=placement filename=placement.jfr
+ *   jfr print --categories Placement placement.jfr
+ * </pre>
+ * The first event instance registers the event classes with JFR, which takes a few hundred
+ * milliseconds; callers only create events once {@link #recorderInitialized()} is true.
+ */
+final class PlacementEvents {
+
+    private PlacementEvents() {
+    }
+
+    /**
+     * True once Flight Recorder has been started in this JVM (-XX:StartFlightRecording, jcmd
+     * JFR.start or the jdk.jfr API). Until then no recording can be running, so the events are
+     * skipped without loading the JFR internals.
+     */
+    static boolean recorderInitialized() {
+        return FlightRecorder.isInitialized();
+    }
+
+    @Name("verarbeitung.BatchStarted")
+    @Label("Batch Started")
+    @Category("Placement")
+    @Description("A batch search was started")
+    static final class BatchStarted extends Event {
+        @Label("Batch")
+        int batchIndex;
+        @Label("Orders")
+        int size;
+    }
+
+    @Name("verarbeitung.BatchFinished")
+    @Label("Batch Finished")
+    @Category("Placement")
+    @Description("A batch search finished; the event duration is the batch wall time")
+    static final class BatchFinished extends Event {
+        @Label("Batch")
+        int batchIndex;
+        @Label("Orders")
+        int size;
+        @Label("Nodes")
+        long nodes;
+        @Label("Best Height")
+        int bestHeight;
+        @Label("Cancelled")
+        boolean cancelled;
+        @Label("Proven Optimal")
+        boolean provenOptimal;
+    }
+
+    @Name("verarbeitung.IncumbentImproved")
+    @Label("Incumbent Improved")
+    @Category("Placement")
+    @Description("A batch search found a strictly lower placement")
+    static final class IncumbentImproved extends Event {
+        @Label("Batch")
+        int batchIndex;
+        @Label("Height")
+        int height;
+        @Label("Nodes")
+        long nodes;
+    }
+
+    @Name("verarbeitung.NodeRate")
+    @Label("Node Rate")
+    @Category("Placement")
+    @Description("Sampled search progress of a batch")
+    static final class NodeRate extends Event {
+        @Label("Batch")
+        int batchIndex;
+        @Label("Nodes")
+        long nodes;
+        @Label("Nodes per Second")
+        double nodesPerSecond;
+    }
+}
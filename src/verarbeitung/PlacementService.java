@@ -1,16 +1,28 @@
 package verarbeitung; // Adjust package name if necessary
 
+import model.CompactPlacement;
 import model.CustomerOrder;
+import model.OrderCatalog;
 import model.PlacementResult;
 import model.Point;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -21,35 +33,60 @@ import java.util.stream.IntStream;
  * quality. Stacking batches based only on their maximum height can lead to
  * significant empty space and suboptimal results compared to sequential batch processing.
  */
-public class PlacementService implements AutoCloseable {
+public class PlacementService implements AutoCloseable, PlacementServiceMXBean {
 
     private final int rollWidth;
-    private final ExecutorService executor;
+    private final Supplier<ExecutorService> executorFactory;
+    private volatile ExecutorService executor; // Created on first use, see executor(); written under this
     private final boolean manageExecutorLifecycle;
     private final boolean useAreaSortHeuristic;
     private final int optimizationDepth; // Batch size
+    private volatile CollisionMode collisionMode = CollisionMode.OBJECTS;
+    private volatile boolean repartition; // Group complementary widths into batches instead of file order
+    private volatile ExecutionMode executionMode = ExecutionMode.EXECUTOR;
+    private final AtomicLong totalRecursiveCalls = new AtomicLong(0); // Over all batches searched by this service
+    private volatile SearchMetrics metrics; // null = search metrics disabled
+
+    // --- Run control (see PlacementServiceMXBean) ---
+    private final Map<Integer, BatchSearch> activeBatches = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> finishedBatchHeights = new ConcurrentHashMap<>();
+    private final AtomicInteger activeTasks = new AtomicInteger(0);
+    private volatile boolean runCancelled;
+    private volatile long deadlineNanos = NO_DEADLINE;
+    private long runStartNanos = -1;       // Guarded by this; -1 = no run started yet
+    private long runStartNodes;            // Guarded by this
+    private long runEndNanos = -1;         // Guarded by this; -1 = run still going
+    private long runEndNodes;              // Guarded by this
+    private ObjectName mbeanName;          // Guarded by this
 
     private static final long PRINT_PROGRESS_INTERVAL = 50_000_000; // For internal batch logging
+    private static final long DEADLINE_CHECK_MASK = (1 << 12) - 1;  // Check the deadline every 4096 nodes of a batch
+    private static final long NODE_RATE_SAMPLE_MASK = (1 << 20) - 1; // JFR node rate event every ~1M nodes of a batch
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    static final int INLINE_BATCH_SIZE = 4; // Batches up to this size are searched on the calling thread
+    private static final AtomicInteger MBEAN_IDS = new AtomicInteger(0);
 
     /**
      * Constructor using default WorkStealingPool and enabling area sort heuristic.
+     * The pool is only created once a batch is searched in parallel.
      *
      * @param rollWidth         The width of the roll.
      * @param optimizationDepth The number of orders per batch.
      */
     public PlacementService(int rollWidth, int optimizationDepth) {
-        this(rollWidth, optimizationDepth, true, Executors.newWorkStealingPool(), true);
+        this(rollWidth, optimizationDepth, true, Executors::newWorkStealingPool, true);
     }
 
     /**
-     * Constructor allowing control over the area sort heuristic. Uses default WorkStealingPool.
+     * Constructor allowing control over the area sort heuristic. Uses default WorkStealingPool,
+     * created once a batch is searched in parallel.
      *
      * @param rollWidth            The width of the roll.
      * @param optimizationDepth    The number of orders per batch.
      * @param useAreaSortHeuristic Whether to sort orders by area within each batch before placement.
      */
     public PlacementService(int rollWidth, int optimizationDepth, boolean useAreaSortHeuristic) {
-        this(rollWidth, optimizationDepth, useAreaSortHeuristic, Executors.newWorkStealingPool(), true);
+        this(rollWidth, optimizationDepth, useAreaSortHeuristic, Executors::newWorkStealingPool, true);
     }
 
     /**
@@ -62,19 +99,21 @@ public class PlacementService implements AutoCloseable {
      * @param manageLifecycle      True if this service should shut down the executor, false otherwise.
      */
     public PlacementService(int rollWidth, int optimizationDepth, boolean useAreaSortHeuristic, ExecutorService executorService, boolean manageLifecycle) {
+        this(rollWidth, optimizationDepth, useAreaSortHeuristic, requireExecutor(executorService), manageLifecycle);
+        this.executor = executorService;
+    }
+
+    private PlacementService(int rollWidth, int optimizationDepth, boolean useAreaSortHeuristic, Supplier<ExecutorService> executorFactory, boolean manageLifecycle) {
         if (rollWidth <= 0) {
             throw new IllegalArgumentException("Roll width must be positive.");
         }
         if (optimizationDepth <= 0) {
             throw new IllegalArgumentException("Optimization depth (batch size) must be positive.");
         }
-        if (executorService == null) {
-            throw new IllegalArgumentException("ExecutorService cannot be null.");
-        }
         this.rollWidth = rollWidth;
         this.optimizationDepth = optimizationDepth;
         this.useAreaSortHeuristic = useAreaSortHeuristic;
-        this.executor = executorService;
+        this.executorFactory = executorFactory;
         this.manageExecutorLifecycle = manageLifecycle;
         // Ensure CustomerOrder has required methods
         try {
@@ -85,9 +124,38 @@ public class PlacementService implements AutoCloseable {
         }
     }
 
+    private static Supplier<ExecutorService> requireExecutor(ExecutorService executorService) {
+        if (executorService == null) {
+            throw new IllegalArgumentException("ExecutorService cannot be null.");
+        }
+        return () -> executorService;
+    }
+
+    /** The executor for batch and branch tasks, created on first use. */
+    private ExecutorService executor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (this) {
+                current = executor;
+                if (current == null) {
+                    current = executorFactory.get();
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
     @Override
     public void close() {
-        if (manageExecutorLifecycle) {
+        unregisterMBean();
+        final ExecutorService executor;
+        synchronized (this) {
+            executor = this.executor;
+        }
+        if (executor == null) {
+            System.out.println("ParallelBatchPlacementService closed (no executor was created).");
+        } else if (manageExecutorLifecycle) {
             System.out.println("Shutting down ParallelBatchPlacementService ExecutorService...");
             executor.shutdown();
             try {
@@ -116,32 +184,81 @@ public class PlacementService implements AutoCloseable {
      */
     public PlacementResult findOptimalPlacementParallelBatches(final List<CustomerOrder> allOrders) {
         allOrders.forEach(CustomerOrder::unsetPlacement); // Reset state
+        startRun();
+        try {
+            return optimizeAndCombineBatches(allOrders);
+        } finally {
+            finishRun();
+        }
+    }
 
+    // Cancellation and the deadline only apply to the run they were requested in
+    private synchronized void startRun() {
+        runCancelled = false;
+        deadlineNanos = NO_DEADLINE;
+        finishedBatchHeights.clear();
+        runStartNanos = System.nanoTime();
+        runStartNodes = getNodeCount();
+        runEndNanos = -1;
+    }
+
+    private synchronized void finishRun() {
+        runEndNanos = System.nanoTime();
+        runEndNodes = getNodeCount();
+    }
+
+    private PlacementResult optimizeAndCombineBatches(final List<CustomerOrder> allOrders) {
         // 1. Split into batches (using copies)
-        final List<List<CustomerOrder>> batches = IntStream.range(0, (allOrders.size() + optimizationDepth - 1) / optimizationDepth)
-                .mapToObj(i -> {
-                    int start = i * optimizationDepth;
-                    int end = Math.min(start + optimizationDepth, allOrders.size());
-                    // Create copies for each batch to ensure independence
-                    return allOrders.subList(start, end).stream()
-                            .map(CustomerOrder::copy)
-                            .collect(Collectors.toList());
-                })
-                .toList();
+        final List<List<CustomerOrder>> batches = repartition
+                ? BatchPartitioner.partition(allOrders, rollWidth, optimizationDepth)
+                : splitIntoBatches(allOrders, optimizationDepth);
 
         if (batches.isEmpty()) {
             System.out.println("No orders to place.");
             return new PlacementResult(Collections.emptyList(), Set.of(new Point(0,0)), 0, 0.0);
         }
 
-        System.out.printf("Processing %d batches in parallel (Batch Size: %d, Heuristic Sort: %b)...%n",
-                batches.size(), optimizationDepth, useAreaSortHeuristic);
+        System.out.printf("Processing %d batches in parallel (Batch Size: %d, Heuristic Sort: %b, Execution: %s)...%n",
+                batches.size(), optimizationDepth, useAreaSortHeuristic, executionMode);
+
+        // 2. - 3. Optimize the batches in parallel and wait for them (tiny jobs on this thread, without any pool)
+        final List<CompactPlacement> batchResults = batches.size() == 1 && batches.getFirst().size() <= INLINE_BATCH_SIZE
+                ? optimizeBatchesInline(batches)
+                : executionMode == ExecutionMode.STRUCTURED
+                ? optimizeBatchesStructured(batches)
+                : optimizeBatchesWithExecutor(batches);
+
+        // 4. - 6. Stack, finalize and write back
+        return combineBatchResults(batchResults, allOrders);
+    }
+
+    /**
+     * Runs the batches one after another on the calling thread. Used for a job that is a single
+     * batch of at most {@link #INLINE_BATCH_SIZE} orders: its search takes microseconds, far less
+     * than starting the pool threads and task machinery. Failed batches yield null, as with the
+     * executor.
+     */
+    private List<CompactPlacement> optimizeBatchesInline(final List<List<CustomerOrder>> batches) {
+        final List<CompactPlacement> batchResults = new ArrayList<>(batches.size());
+        for (int i = 0; i < batches.size(); i++) {
+            try {
+                batchResults.add(optimizeSingleBatch(batches.get(i), i + 1));
+            } catch (RuntimeException e) {
+                System.err.printf("Error getting result for batch %d: %s%n", i + 1, e.getMessage());
+                batchResults.add(null); // Skip this batch if it failed
+            }
+        }
+        System.out.println("All batch computations finished.");
+        return batchResults;
+    }
 
+    /** Runs every batch as a CompletableFuture on the executor; failed batches yield null. */
+    private List<CompactPlacement> optimizeBatchesWithExecutor(final List<List<CustomerOrder>> batches) {
         // 2. Launch parallel calculation for each batch
-        List<CompletableFuture<PlacementResult>> futures = batches.stream()
-                .map(batch -> CompletableFuture.supplyAsync(() ->
-                                optimizeSingleBatch(batch), // optimizeSingleBatch operates on copies
-                        executor))
+        List<CompletableFuture<CompactPlacement>> futures = IntStream.range(0, batches.size())
+                .mapToObj(i -> CompletableFuture.supplyAsync(() ->
+                                optimizeSingleBatch(batches.get(i), i + 1), // optimizeSingleBatch operates on copies
+                        executor()))
                 .toList();
 
         // 3. Wait for all batch optimizations to complete
@@ -149,82 +266,368 @@ public class PlacementService implements AutoCloseable {
         CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
         System.out.println("All batch computations finished.");
 
-        // 4. Combine results by stacking
-        final List<CustomerOrder> globallyPlacedOrders = new ArrayList<>();
-        int currentGlobalYOffset = 0;
-
-        System.out.println("Combining parallel batch results by stacking...");
-        int batchIndex = 0;
-        for (CompletableFuture<PlacementResult> future : futures) {
-            batchIndex++;
-            PlacementResult batchResult;
+        final List<CompactPlacement> batchResults = new ArrayList<>(futures.size());
+        int futureIndex = 0;
+        for (CompletableFuture<CompactPlacement> future : futures) {
+            futureIndex++;
             try {
-                batchResult = future.join(); // Get completed result (already finished)
+                batchResults.add(future.join()); // Get completed result (already finished)
             } catch (Exception e) {
-                System.err.printf("Error getting result for batch %d: %s%n", batchIndex, e.getMessage());
+                System.err.printf("Error getting result for batch %d: %s%n", futureIndex, e.getMessage());
                 // Optionally log stack trace: e.printStackTrace();
-                continue; // Skip this batch if fetching result failed
+                batchResults.add(null); // Skip this batch if fetching result failed
             }
+        }
+        return batchResults;
+    }
+
+    /**
+     * Runs every batch in its own virtual thread of one scope. A failing batch does not cancel the
+     * others (it yields null, as with the executor); interrupting the caller cancels the run.
+     */
+    private List<CompactPlacement> optimizeBatchesStructured(final List<List<CustomerOrder>> batches) {
+        final List<BranchScope.Subtask<CompactPlacement>> subtasks = new ArrayList<>(batches.size());
+        System.out.println("Waiting for structured batch computations to finish...");
+        try (BranchScope scope = new BranchScope(false, () -> runCancelled = true)) {
+            for (int i = 0; i < batches.size(); i++) {
+                final List<CustomerOrder> batch = batches.get(i);
+                final int batchIndex = i + 1;
+                subtasks.add(scope.fork(() -> optimizeSingleBatch(batch, batchIndex)));
+            }
+            scope.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runCancelled = true;
+        }
+        System.out.println("All batch computations finished.");
+
+        final List<CompactPlacement> batchResults = new ArrayList<>(subtasks.size());
+        for (int i = 0; i < subtasks.size(); i++) {
+            BranchScope.Subtask<CompactPlacement> subtask = subtasks.get(i);
+            if (subtask.state() == BranchScope.State.SUCCESS) {
+                batchResults.add(subtask.get());
+            } else {
+                System.err.printf("Error getting result for batch %d: %s%n", i + 1, subtask.exception());
+                batchResults.add(null); // Skip this batch if it failed
+            }
+        }
+        return batchResults;
+    }
 
+    /**
+     * Splits the orders into consecutive batches of at most batchSize copies each.
+     *
+     * @param allOrders The orders in input order.
+     * @param batchSize The maximum number of orders per batch.
+     * @return Independent, mutable batch lists holding copies of the orders.
+     */
+    static List<List<CustomerOrder>> splitIntoBatches(final List<CustomerOrder> allOrders, final int batchSize) {
+        return IntStream.range(0, (allOrders.size() + batchSize - 1) / batchSize)
+                .mapToObj(i -> {
+                    int start = i * batchSize;
+                    int end = Math.min(start + batchSize, allOrders.size());
+                    // Create copies for each batch to ensure independence
+                    return allOrders.subList(start, end).stream()
+                            .map(CustomerOrder::copy)
+                            .collect(Collectors.toList());
+                })
+                .toList();
+    }
+
+    /**
+     * Stacks the per-batch results on top of each other, computes the final figures and writes
+     * the final placement back into the original order objects.
+     *
+     * @param batchResults The best result of every batch in batch order; null entries are skipped.
+     * @param allOrders    The original input orders.
+     * @return The combined placement.
+     */
+    PlacementResult combineBatchResults(final List<CompactPlacement> batchResults, final List<CustomerOrder> allOrders) {
+        // 4. Combine results by stacking (offsets are applied as views, orders are materialized once)
+        final List<CompactPlacement> stackedBatches = new ArrayList<>(batchResults.size());
+        int currentGlobalYOffset = 0;
+        int provenOptimalBatches = 0;
+
+        System.out.println("Combining parallel batch results by stacking...");
+        int batchIndex = 0;
+        for (CompactPlacement batchResult : batchResults) {
+            batchIndex++;
 
-            if (batchResult == null || batchResult.placedOrders().isEmpty()) {
+            if (batchResult == null || batchResult.isEmpty()) {
                 System.out.printf("  - Batch %d: No orders placed or result was null.%n", batchIndex);
                 continue; // Skip empty or failed batches
             }
 
             int batchRelativeHeight = batchResult.totalHeight();
-            System.out.printf("  - Batch %d: Adding %d orders (Rel Height: %d) starting at Global Y: %d%n",
-                    batchIndex, batchResult.placedOrders().size(), batchRelativeHeight, currentGlobalYOffset);
-
-            for (CustomerOrder batchPlacedOrder : batchResult.placedOrders()) {
-                CustomerOrder globalOrder = batchPlacedOrder.copy(); // Create final copy
-                globalOrder.placedY += currentGlobalYOffset;     // Apply offset
-                globalOrder.updateDerivedPlacementFields();      // Update calculated coords
-                globallyPlacedOrders.add(globalOrder);
+            System.out.printf("  - Batch %d: Adding %d orders (Rel Height: %d%s) starting at Global Y: %d%n",
+                    batchIndex, batchResult.size(), batchRelativeHeight,
+                    batchResult.isProvenOptimal() ? ", proven optimal" : "", currentGlobalYOffset);
+            if (batchResult.isProvenOptimal()) {
+                provenOptimalBatches++;
             }
 
+            CompactPlacement stacked = batchResult.withOffset(currentGlobalYOffset);
+            stackedBatches.add(stacked);
+
             // Update the offset for the *next* batch using the actual max Y achieved
-            currentGlobalYOffset = globallyPlacedOrders.stream()
-                    .mapToInt(CustomerOrder::getYRO)
-                    .max()
-                    .orElse(currentGlobalYOffset); // Keep offset if list somehow became empty
+            currentGlobalYOffset = Math.max(currentGlobalYOffset, stacked.top());
         }
         System.out.println("Batch combination finished.");
 
         // 5. Final Calculations
+        final List<CustomerOrder> globallyPlacedOrders = new ArrayList<>();
+        double totalOrderArea = 0.0;
+        for (CompactPlacement stacked : stackedBatches) {
+            globallyPlacedOrders.addAll(stacked.toCustomerOrders());
+            totalOrderArea += stacked.placedArea();
+        }
         final int finalMaxY = globallyPlacedOrders.stream().mapToInt(CustomerOrder::getYRO).max().orElse(0);
-        final double totalOrderArea = globallyPlacedOrders.stream()
-                .filter(CustomerOrder::isPlaced) // Ensure only placed orders contribute
-                .mapToDouble(o -> (double) o.currentWidth * o.currentHeight)
-                .sum();
         final double totalRollAreaUsed = (double) this.rollWidth * finalMaxY;
         final double utilization = (totalRollAreaUsed > 0) ? (totalOrderArea / totalRollAreaUsed) * 100.0 : 0.0;
 
         final Set<Point> finalAbsoluteDockingPoints = calculateDockingPoints(globallyPlacedOrders, this.rollWidth);
 
         // 6. Cleanup original input orders state
-        final Set<Integer> finalPlacedOrderIds = globallyPlacedOrders.stream().map(CustomerOrder::getId).collect(Collectors.toSet());
+        final Map<Integer, CustomerOrder> finalPlacedOrdersById = new HashMap<>();
+        for (CustomerOrder placedOrder : globallyPlacedOrders) {
+            finalPlacedOrdersById.putIfAbsent(placedOrder.getId(), placedOrder);
+        }
         for (final CustomerOrder initialOrder : allOrders) {
-            if (!finalPlacedOrderIds.contains(initialOrder.getId())) {
+            CustomerOrder placedOrder = finalPlacedOrdersById.get(initialOrder.getId());
+            if (placedOrder == null) {
                 initialOrder.unsetPlacement();
             } else {
                 // Optional: Update original object state to reflect final placement
-                globallyPlacedOrders.stream()
-                        .filter(p -> p.getId() == initialOrder.getId())
-                        .findFirst()
-                        .ifPresent(placedOrder -> initialOrder.setPlacement(placedOrder.placedX, placedOrder.placedY, placedOrder.isRotated));
+                initialOrder.setPlacement(placedOrder.placedX, placedOrder.placedY, placedOrder.isRotated);
             }
         }
 
         System.out.printf("Parallel batch placement finished. Total Height: %d, Utilization: %.2f%%%n", finalMaxY, utilization);
-        return new PlacementResult(List.copyOf(globallyPlacedOrders), finalAbsoluteDockingPoints, finalMaxY, utilization);
+        return new PlacementResult(List.copyOf(globallyPlacedOrders), finalAbsoluteDockingPoints, finalMaxY, utilization,
+                batchResults.size(), provenOptimalBatches);
     }
 
-    // --- Helper to optimize a single, independent batch ---
-    private PlacementResult optimizeSingleBatch(List<CustomerOrder> batchOrders) {
-        // Isolated state for this batch optimization task
-        AtomicReference<PlacementResult> batchBestResult = new AtomicReference<>(null);
-        AtomicLong batchCallCounter = new AtomicLong(0);
+    /**
+     * Optimizes a single batch on its own, without stacking. The input orders are not modified;
+     * the result holds placed copies in batch-relative coordinates (starting at y = 0).
+     * <p>
+     * The batch is tracked as batch 0 of the service's run state (best heights, active tasks,
+     * cancellation, deadline, metrics). Independent concurrent jobs should therefore each use
+     * their own service; the services can share one executor.
+     *
+     * @param batchOrders The orders of the batch.
+     * @return The best placement found for the batch, or null if the batch is empty.
+     */
+    public PlacementResult optimizeBatch(final List<CustomerOrder> batchOrders) {
+        return optimizeBatchOnProfile(batchOrders, List.of());
+    }
+
+    /**
+     * Like {@link #optimizeBatch}, but packs the batch around already placed orders, starting at
+     * their docking points instead of the origin. The fixed orders are obstacles only: they are
+     * not part of the result, and its height is the top of the batch orders.
+     *
+     * @param batchOrders The orders of the batch.
+     * @param fixedOrders Placed orders (at y &gt;= 0) the batch must not overlap.
+     * @return The best placement found for the batch, or null if the batch is empty.
+     */
+    PlacementResult optimizeBatchOnProfile(final List<CustomerOrder> batchOrders, final List<CustomerOrder> fixedOrders) {
+        final List<CustomerOrder> copies = batchOrders.stream()
+                .map(CustomerOrder::copy)
+                .collect(Collectors.toList());
+        copies.forEach(CustomerOrder::unsetPlacement);
+        final CompactPlacement result = optimizeSingleBatch(copies, 0, List.copyOf(fixedOrders));
+        return result != null ? result.toPlacementResult(0.0) : null;
+    }
+
+    /**
+     * Selects the overlap/coverage check used by the recursive search.
+     *
+     * @param collisionMode The collision mode; VECTOR falls back to SCALAR without jdk.incubator.vector.
+     */
+    public void setCollisionMode(CollisionMode collisionMode) {
+        if (collisionMode == null) {
+            throw new IllegalArgumentException("CollisionMode cannot be null.");
+        }
+        this.collisionMode = collisionMode;
+    }
+
+    public CollisionMode getCollisionMode() {
+        return collisionMode;
+    }
+
+    /**
+     * Enables repartitioning: batches are formed by {@link BatchPartitioner} from orders whose
+     * widths fill the roll together, instead of consecutive slices in input order.
+     *
+     * @param repartition True to repartition before the parallel search.
+     */
+    public void setRepartitioning(boolean repartition) {
+        this.repartition = repartition;
+    }
+
+    public boolean isRepartitioning() {
+        return repartition;
+    }
+
+    /**
+     * Selects how batches and first-level branches run in parallel.
+     *
+     * @param executionMode EXECUTOR (CompletableFuture on the executor) or STRUCTURED (virtual threads in scopes).
+     */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        if (executionMode == null) {
+            throw new IllegalArgumentException("ExecutionMode cannot be null.");
+        }
+        this.executionMode = executionMode;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Enables search metrics for all batches started from now on. The returned object can be read
+     * while the search is running.
+     *
+     * @return The new metrics, replacing any previous ones.
+     */
+    public SearchMetrics enableMetrics() {
+        SearchMetrics newMetrics = new SearchMetrics(optimizationDepth);
+        this.metrics = newMetrics;
+        return newMetrics;
+    }
+
+    /** @return The current search metrics, or null if they are not enabled. */
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    // --- Management (JMX) ---
+
+    /**
+     * Registers this service as an MXBean with the platform MBean server; it is unregistered on
+     * {@link #close()}.
+     *
+     * @return The object name the service was registered under.
+     */
+    public synchronized ObjectName registerMBean() {
+        if (mbeanName != null) {
+            return mbeanName;
+        }
+        try {
+            ObjectName name = new ObjectName("verarbeitung:type=PlacementService,id=" + MBEAN_IDS.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            mbeanName = name;
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register PlacementService MBean.", e);
+        }
+    }
+
+    private synchronized void unregisterMBean() {
+        if (mbeanName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+        } catch (JMException e) {
+            System.err.println("Could not unregister PlacementService MBean: " + e.getMessage());
+        }
+        mbeanName = null;
+    }
+
+    @Override
+    public Map<Integer, Integer> getBestHeightPerBatch() {
+        Map<Integer, Integer> heights = new TreeMap<>(finishedBatchHeights);
+        activeBatches.forEach((batchIndex, search) -> {
+            CompactPlacement best = search.best.get();
+            if (best != null) {
+                heights.put(batchIndex, best.totalHeight());
+            }
+        });
+        return heights;
+    }
+
+    @Override
+    public long getNodeCount() {
+        long nodes = totalRecursiveCalls.get();
+        for (BatchSearch search : activeBatches.values()) {
+            nodes += search.calls.get();
+        }
+        return nodes;
+    }
+
+    @Override
+    public synchronized double getNodesPerSecond() {
+        if (runStartNanos < 0) {
+            return 0.0;
+        }
+        boolean running = runEndNanos < 0;
+        long end = running ? System.nanoTime() : runEndNanos;
+        long nodes = running ? getNodeCount() : runEndNodes;
+        double seconds = (end - runStartNanos) / 1_000_000_000.0;
+        return seconds > 0 ? (nodes - runStartNodes) / seconds : 0.0;
+    }
+
+    @Override
+    public int getActiveTasks() {
+        return activeTasks.get();
+    }
+
+    @Override
+    public long getRemainingDeadlineMillis() {
+        long deadline = deadlineNanos;
+        return deadline == NO_DEADLINE ? -1 : Math.max(0, (deadline - System.nanoTime()) / 1_000_000);
+    }
+
+    @Override
+    public boolean cancelBatch(int batchIndex) {
+        BatchSearch search = activeBatches.get(batchIndex);
+        if (search == null) {
+            return false;
+        }
+        search.cancelled = true;
+        System.out.printf("Batch %d cancelled.%n", batchIndex);
+        return true;
+    }
+
+    @Override
+    public void cancelRun() {
+        runCancelled = true;
+        System.out.println("Placement run cancelled.");
+    }
+
+    @Override
+    public synchronized void tightenDeadline(long millisFromNow) {
+        if (millisFromNow < 0) {
+            throw new IllegalArgumentException("Deadline must not be in the past.");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millisFromNow);
+        if (deadlineNanos == NO_DEADLINE || deadline - deadlineNanos < 0) {
+            deadlineNanos = deadline;
+        }
+    }
+
+    /** @return The number of search nodes (recursive calls) visited by this service so far. */
+    public long getRecursiveCallCount() {
+        return totalRecursiveCalls.get();
+    }
+
+    public int getRollWidth() {
+        return rollWidth;
+    }
+
+    public int getOptimizationDepth() {
+        return optimizationDepth;
+    }
+
+    // --- Helper to optimize a single, independent batch (batchIndex is 1-based, 0 = standalone batch) ---
+    private CompactPlacement optimizeSingleBatch(List<CustomerOrder> batchOrders, int batchIndex) {
+        return optimizeSingleBatch(batchOrders, batchIndex, List.of());
+    }
+
+    private CompactPlacement optimizeSingleBatch(List<CustomerOrder> batchOrders, int batchIndex, List<CustomerOrder> fixedOrders) {
         String batchInfo = String.format("Batch (Size %d, Hash %d)", batchOrders.size(), batchOrders.hashCode()); // Basic identifier
 
         System.out.printf("Starting optimization for %s%n", batchInfo);
@@ -234,45 +637,287 @@ public class PlacementService implements AutoCloseable {
         }
 
         // --- Optional: Sort batch by area descending ---
+        sortBatchForSearch(batchOrders);
+
+        // Isolated state for this batch optimization task
+        final BatchSearch search = new BatchSearch(OrderCatalog.of(batchOrders), new AtomicReference<>(null),
+                metrics, batchIndex, lowerBound(batchOrders, rollWidth), fixedOrders,
+                calculateDockingPoints(fixedOrders, rollWidth));
+        if (search.metrics != null) {
+            search.metrics.batchStarted(batchIndex, batchOrders.size());
+        }
+
+        // JFR events only once the recorder runs; creating the first one would register all event classes
+        final boolean recorderInitialized = PlacementEvents.recorderInitialized();
+        if (recorderInitialized) {
+            final PlacementEvents.BatchStarted startedEvent = new PlacementEvents.BatchStarted();
+            if (startedEvent.shouldCommit()) {
+                startedEvent.batchIndex = batchIndex;
+                startedEvent.size = batchOrders.size();
+                startedEvent.commit();
+            }
+        }
+        final PlacementEvents.BatchFinished finishedEvent = recorderInitialized ? new PlacementEvents.BatchFinished() : null;
+        if (finishedEvent != null) {
+            finishedEvent.begin();
+        }
+
+        activeBatches.put(batchIndex, search);
+        activeTasks.incrementAndGet();
+        try {
+            // --- Call the recursive function with batch-local state ---
+            recursivePlaceForSingleBatch(
+                    batchOrders,               // The list of orders (copies) for this batch
+                    Collections.emptyList(),   // Start with no orders placed
+                    search.startDockingPoints, // Start docking at origin (relative) or on the fixed orders
+                    search,                    // Best result and call counter of *this batch*
+                    null                       // No collision index needed before the first placement
+            );
+        } finally {
+            activeTasks.decrementAndGet();
+            // Count the nodes before the batch leaves the active set, so getNodeCount() never drops
+            totalRecursiveCalls.addAndGet(search.calls.get());
+            activeBatches.remove(batchIndex, search);
+        }
+
+        long calls = search.calls.get();
+        if (search.metrics != null) {
+            search.metrics.batchFinished(batchIndex, calls);
+        }
+        CompactPlacement finalResult = search.best.get();
+        boolean cancelled = !search.provenOptimal && (search.cancelled || runCancelled);
+        if (finalResult != null && search.provenOptimal) {
+            finalResult = finalResult.asProvenOptimal();
+        }
+        if (finalResult != null) {
+            finishedBatchHeights.put(batchIndex, finalResult.totalHeight());
+        }
+        if (finishedEvent != null && finishedEvent.shouldCommit()) {
+            finishedEvent.batchIndex = batchIndex;
+            finishedEvent.size = batchOrders.size();
+            finishedEvent.nodes = calls;
+            finishedEvent.bestHeight = finalResult != null ? finalResult.totalHeight() : -1;
+            finishedEvent.cancelled = cancelled;
+            finishedEvent.provenOptimal = search.provenOptimal;
+            finishedEvent.commit();
+        }
+        System.out.printf("Finished optimization for %s. Calls: %,d. Best Rel Height: %d (Lower Bound: %d)%s%n",
+                          batchInfo, calls, finalResult != null ? finalResult.totalHeight() : -1, search.lowerBound,
+                          search.provenOptimal ? " (proven optimal)" : cancelled ? " (cancelled)" : "");
+
+        return finalResult; // Return the best result found for this batch
+    }
+
+    /** Batch-local search state shared by all branches of one batch. */
+    private static final class BatchSearch {
+        final OrderCatalog catalog;                   // Flyweight for compact incumbents
+        final AtomicReference<CompactPlacement> best; // Best placement (or bound) of this batch
+        final AtomicLong calls = new AtomicLong(0);   // Recursive calls of this batch
+        final SearchMetrics metrics;                  // null = disabled
+        final int batchIndex;
+        final long startNanos = System.nanoTime();
+        final int lowerBound;                         // No placement of the batch can be lower
+        final List<CustomerOrder> fixedOrders;        // Obstacles placed before the batch (empty for a plain batch)
+        final Set<Point> startDockingPoints;          // Where the first order may go: the origin or on the fixed orders
+        final List<Point> sortedStartDockingPoints;   // The same, lowest first
+        volatile boolean cancelled;                   // Set via JMX; stop once there is a complete placement
+        volatile boolean provenOptimal;               // The incumbent reached the lower bound
+        volatile boolean aborted;                     // A sibling branch failed or the thread was interrupted; stop at once
+        volatile List<PendingBranch> branches;        // First-level branch tasks; the ones not started are cancelled once proven optimal
+
+        BatchSearch(OrderCatalog catalog, AtomicReference<CompactPlacement> best, SearchMetrics metrics, int batchIndex,
+                    int lowerBound) {
+            this(catalog, best, metrics, batchIndex, lowerBound, List.of(), Set.of(new Point(0, 0)));
+        }
+
+        BatchSearch(OrderCatalog catalog, AtomicReference<CompactPlacement> best, SearchMetrics metrics, int batchIndex,
+                    int lowerBound, List<CustomerOrder> fixedOrders, Set<Point> startDockingPoints) {
+            this.catalog = catalog;
+            this.best = best;
+            this.metrics = metrics;
+            this.batchIndex = batchIndex;
+            this.lowerBound = lowerBound;
+            this.fixedOrders = fixedOrders;
+            this.startDockingPoints = startDockingPoints;
+            this.sortedStartDockingPoints = startDockingPoints.stream()
+                    .sorted(Comparator.comparingInt(Point::y).thenComparingInt(Point::x))
+                    .toList();
+        }
+    }
+
+    /**
+     * A first-level branch task. A branch either claims {@code started} and runs to completion, or is
+     * cancelled before it starts; a running branch stops at its next node once the batch is proven
+     * optimal and completes normally.
+     */
+    private record PendingBranch(CompletableFuture<Void> future, AtomicBoolean started) {
+    }
+
+    /**
+     * Lower bound on the height of any placement of the batch: the total area spread over the roll
+     * width, rounded up, or the tallest order's smallest feasible height, whichever is larger.
+     */
+    static int lowerBound(List<CustomerOrder> batchOrders, int rollWidth) {
+        long area = 0;
+        int tallest = 0;
+        for (CustomerOrder order : batchOrders) {
+            area += (long) order.originalWidth * order.originalHeight;
+            int height;
+            if (order.originalWidth <= rollWidth && order.originalHeight <= rollWidth) {
+                height = Math.min(order.originalWidth, order.originalHeight);
+            } else if (order.originalWidth <= rollWidth) {
+                height = order.originalHeight;
+            } else {
+                height = order.originalWidth; // Only fits rotated (or not at all)
+            }
+            tallest = Math.max(tallest, height);
+        }
+        return (int) Math.max((area + rollWidth - 1) / rollWidth, tallest);
+    }
+
+    /** Applies the optional area sort heuristic (descending) to a batch before it is searched. */
+    void sortBatchForSearch(List<CustomerOrder> batchOrders) {
         if (this.useAreaSortHeuristic) {
             batchOrders.sort(Comparator.comparingDouble((CustomerOrder o) ->
                     (double) o.originalWidth * o.originalHeight).reversed());
-            // System.out.printf("  %s: Sorted by area.%n", batchInfo);
         }
+    }
 
-        final Set<Point> batchStartDockingPoints = Set.of(new Point(0, 0));
+    /**
+     * Searches a single first-level branch of a batch: the order at firstIndex is placed at the
+     * origin (in both orientations) and the rest of the batch is searched sequentially below it.
+     * The incumbent may be seeded with an upper bound via {@link CompactPlacement#bound(int)} and tightened
+     * concurrently from outside; only strictly better placements replace it.
+     *
+     * @param batchOrders The batch, already sorted for the search.
+     * @param firstIndex  Index of the order placed first.
+     * @param incumbent   The shared best result (or bound) for this batch.
+     * @return The best placement found in this branch, or null if none beat the incumbent.
+     */
+    CompactPlacement optimizeFirstLevelBranch(List<CustomerOrder> batchOrders, int firstIndex,
+                                              AtomicReference<CompactPlacement> incumbent) {
+        final CompactPlacement before = incumbent.get();
+        final BatchSearch search = new BatchSearch(OrderCatalog.of(batchOrders), incumbent, metrics, 0,
+                lowerBound(batchOrders, rollWidth));
+        final CustomerOrder first = batchOrders.get(firstIndex);
+        for (final boolean rotate : new boolean[]{false, true}) {
+            Runnable branch = firstLevelBranch(batchOrders, firstIndex, rotate, search);
+            if (branch != null) {
+                branch.run();
+            }
+            if (first.originalWidth == first.originalHeight) break;
+        }
+        totalRecursiveCalls.addAndGet(search.calls.get());
+        CompactPlacement result = incumbent.get();
+        return (result != before && result != null && !result.isEmpty()) ? result : null;
+    }
 
-        // --- Call the recursive function with batch-local state ---
-        recursivePlaceForSingleBatch(
-                batchOrders,               // The list of orders (copies) for this batch
-                Collections.emptyList(),   // Start with no orders placed
-                batchStartDockingPoints,   // Start docking at origin (relative)
-                batchBestResult,           // Holder for *this batch's* best result
-                batchCallCounter           // Counter for *this batch's* calls
-        );
+    /**
+     * Prepares the first placement of a batch (order at index placed at the origin, or at each start
+     * docking point on the fixed orders) and returns the remaining search as a task, or null if the
+     * placement does not fit anywhere or is already pruned.
+     */
+    private Runnable firstLevelBranch(final List<CustomerOrder> ordersToPlace, final int index, final boolean rotate,
+                                      final BatchSearch search) {
+        final CustomerOrder orderToConsider = ordersToPlace.get(index);
+
+        final List<CustomerOrder> remainingForNextCall = new ArrayList<>(ordersToPlace.size() - 1);
+        if (index > 0) remainingForNextCall.addAll(ordersToPlace.subList(0, index));
+        if (index < ordersToPlace.size() - 1) remainingForNextCall.addAll(ordersToPlace.subList(index + 1, ordersToPlace.size()));
+        final List<CustomerOrder> immutableRemaining = List.copyOf(remainingForNextCall);
+
+        final int width = rotate ? orderToConsider.originalHeight : orderToConsider.originalWidth;
+        final int height = rotate ? orderToConsider.originalWidth : orderToConsider.originalHeight;
+
+        // --- Start points the order fits at, with the local best result for pruning ---
+        final CompactPlacement currentBestForPruning = search.best.get();
+        final List<CustomerOrder> initialPlacements = new ArrayList<>(1);
+        for (final Point dockPoint : search.sortedStartDockingPoints) {
+            if (dockPoint.x() + width > this.rollWidth) continue;
+            if (currentBestForPruning != null && dockPoint.y() + height >= currentBestForPruning.totalHeight()) {
+                if (search.metrics != null) search.metrics.prune(SearchMetrics.PruneRule.HEIGHT);
+                break; // Start points are sorted by y
+            }
+            final CustomerOrder placedOrderCopy = orderToConsider.copy();
+            placedOrderCopy.setPlacement(dockPoint.x(), dockPoint.y(), rotate);
+            if (!overlapsAny(placedOrderCopy, search.fixedOrders)) {
+                initialPlacements.add(placedOrderCopy);
+            }
+        }
+        if (initialPlacements.isEmpty()) return null;
+
+        final CollisionMode mode = this.collisionMode;
+        return () -> {
+            activeTasks.incrementAndGet();
+            final SearchMetrics branchMetrics = search.metrics;
+            final long startNanos = branchMetrics != null ? System.nanoTime() : 0L;
+            final long startCpu = branchMetrics != null ? branchMetrics.threadCpuNanos() : 0L;
+            // Each branch owns its collision index while it runs and releases it at the end
+            final CollisionIndex collisionIndex = mode.newIndex(ordersToPlace.size() + search.fixedOrders.size(), this.rollWidth);
+            if (collisionIndex != null) {
+                for (final CustomerOrder fixed : search.fixedOrders) {
+                    collisionIndex.push(fixed.getXLU(), fixed.getYLU(), fixed.getXRO(), fixed.getYRO());
+                }
+            }
+            try {
+                for (final CustomerOrder placedOrderCopy : initialPlacements) {
+                    final List<CustomerOrder> nextPlaced = List.of(placedOrderCopy);
 
-        long calls = batchCallCounter.get();
-        PlacementResult finalResult = batchBestResult.get();
-        System.out.printf("Finished optimization for %s. Calls: %,d. Best Rel Height: %d%n",
-                          batchInfo, calls, finalResult != null ? finalResult.totalHeight() : -1);
+                    final Set<Point> nextDockingPoints = new HashSet<>(search.startDockingPoints);
+                    nextDockingPoints.remove(new Point(placedOrderCopy.getXLU(), placedOrderCopy.getYLU()));
+                    final Point newTopLeft = new Point(placedOrderCopy.getXLU(), placedOrderCopy.getYRO());
+                    final Point newBottomRight = new Point(placedOrderCopy.getXRO(), placedOrderCopy.getYLU());
 
-        return finalResult; // Return the best result found for this batch
-    }
+                    if (newTopLeft.x() <= this.rollWidth && !isPointCovered(newTopLeft, nextPlaced)
+                            && !isPointCovered(newTopLeft, search.fixedOrders)) {
+                        nextDockingPoints.add(newTopLeft);
+                    }
+                    if (newBottomRight.x() <= this.rollWidth && !isPointCovered(newBottomRight, nextPlaced)
+                            && !isPointCovered(newBottomRight, search.fixedOrders)) {
+                        nextDockingPoints.add(newBottomRight);
+                    }
+                    // Start points inside the new order are gone
+                    nextDockingPoints.removeIf(p -> isPointCovered(p, nextPlaced));
 
+                    if (collisionIndex != null) {
+                        collisionIndex.push(placedOrderCopy.getXLU(), placedOrderCopy.getYLU(), placedOrderCopy.getXRO(), placedOrderCopy.getYRO());
+                    }
+                    recursivePlaceForSingleBatch(immutableRemaining, nextPlaced, Set.copyOf(nextDockingPoints),
+                            search, collisionIndex); // Pass local state!
+                    if (collisionIndex != null) {
+                        collisionIndex.pop();
+                    }
+                }
+            } finally {
+                if (collisionIndex != null) {
+                    collisionIndex.release();
+                }
+                activeTasks.decrementAndGet();
+            }
+            if (branchMetrics != null) {
+                branchMetrics.branchFinished(search.batchIndex, System.nanoTime() - startNanos,
+                        branchMetrics.threadCpuNanos() - startCpu);
+            }
+        };
+    }
 
     // --- Recursive placement function adapted for isolated batch state ---
     private void recursivePlaceForSingleBatch(
             final List<CustomerOrder> ordersToPlace,   // Immutable List<OrderCopy>
             final List<CustomerOrder> currentlyPlaced, // Immutable List<OrderCopy>
             final Set<Point> availableDockingPoints,   // Immutable Set<Point>
-            // --- Batch-local state holders ---
-            final AtomicReference<PlacementResult> localBestBatchResultRef,
-            final AtomicLong localRecursiveCallCounter
+            // --- Batch-local state holder ---
+            final BatchSearch search,
+            final CollisionIndex collisionIndex        // Branch-local index of currentlyPlaced, null = scan objects
     ) {
         // --- Increment local counter ---
-        long currentCallCount = localRecursiveCallCounter.incrementAndGet();
+        long currentCallCount = search.calls.incrementAndGet();
+        final SearchMetrics metrics = search.metrics;
+        if (metrics != null) {
+            metrics.node(currentlyPlaced.size());
+        }
         // --- Read local best result ---
-        PlacementResult currentBest = localBestBatchResultRef.get();
+        CompactPlacement currentBest = search.best.get();
 
         // Optional Progress Printing (uses local counter)
         if (currentCallCount > 0 && currentCallCount % PRINT_PROGRESS_INTERVAL == 0) {
@@ -281,32 +926,63 @@ public class PlacementService implements AutoCloseable {
                     Thread.currentThread().threadId(), // Simple thread ID as indicator
                     currentCallCount, currentBest != null ? currentBest.totalHeight() : -1);
         }
+        if ((currentCallCount & DEADLINE_CHECK_MASK) == 0) {
+            sampleProgress(search, currentCallCount);
+        }
+        if (search.aborted) {
+            return; // The batch failed elsewhere, its result is discarded
+        }
+        // --- Cancellation (lower bound reached, JMX, deadline): keep the incumbent, stop searching once there is one ---
+        if (currentBest != null && (search.provenOptimal || search.cancelled || runCancelled)) {
+            return;
+        }
 
         // --- Base Case ---
         if (ordersToPlace.isEmpty()) {
             final int currentRelativeMaxY = currentlyPlaced.stream().mapToInt(CustomerOrder::getYRO).max().orElse(0);
-            // Create result with copies (essential!)
-            PlacementResult potentialResult = new PlacementResult(
-                    currentlyPlaced.stream().map(CustomerOrder::copy).toList(),
-                    Set.copyOf(availableDockingPoints),
-                    currentRelativeMaxY,
-                    0.0 // Utilization not relevant here
+            if (currentBest != null && currentRelativeMaxY >= currentBest.totalHeight()) {
+                return; // Not an improvement, skip building the result
+            }
+            // Capture the placement compactly (ints only, orders referenced via the catalog)
+            CompactPlacement potentialResult = CompactPlacement.of(
+                    search.catalog,
+                    currentlyPlaced,
+                    availableDockingPoints,
+                    currentRelativeMaxY
             );
             // --- Update local best result atomically ---
-            localBestBatchResultRef.accumulateAndGet(potentialResult,
+            CompactPlacement updatedBest = search.best.accumulateAndGet(potentialResult,
                     (existingBest, potentialNew) ->
                             (existingBest == null || potentialNew.totalHeight() < existingBest.totalHeight())
                                     ? potentialNew : existingBest
             );
+            if (updatedBest == potentialResult) {
+                if (currentRelativeMaxY <= search.lowerBound) {
+                    markProvenOptimal(search);
+                }
+                if (metrics != null) {
+                    metrics.improvement(search.batchIndex, currentRelativeMaxY);
+                }
+                if (PlacementEvents.recorderInitialized()) {
+                    PlacementEvents.IncumbentImproved event = new PlacementEvents.IncumbentImproved();
+                    if (event.shouldCommit()) {
+                        event.batchIndex = search.batchIndex;
+                        event.height = currentRelativeMaxY;
+                        event.nodes = currentCallCount;
+                        event.commit();
+                    }
+                }
+            }
             return;
         }
 
         // --- Pruning 1: Intermediate Height ---
         // --- Read local best result ---
-        currentBest = localBestBatchResultRef.get();
+        currentBest = search.best.get();
         if (currentBest != null && !currentlyPlaced.isEmpty()) {
             final int intermediateMaxY = currentlyPlaced.stream().mapToInt(CustomerOrder::getYRO).max().getAsInt();
             if (intermediateMaxY >= currentBest.totalHeight()) {
+                if (metrics != null) metrics.prune(SearchMetrics.PruneRule.INTERMEDIATE_HEIGHT);
                 return; // Prune this branch
             }
         }
@@ -314,57 +990,54 @@ public class PlacementService implements AutoCloseable {
         // --- Recursive Step ---
         if (currentlyPlaced.isEmpty()) {
             // --- INITIAL PLACEMENT (Parallel within this batch task) ---
-            final Point initialDockPoint = new Point(0, 0);
-            if (!availableDockingPoints.contains(initialDockPoint)) {
-                System.err.printf("[%d] Error: Initial dock point (0,0) missing!%n", Thread.currentThread().threadId());
+            if (availableDockingPoints.isEmpty()) {
+                System.err.printf("[%d] Error: No initial dock point!%n", Thread.currentThread().threadId());
                 return;
             }
 
-            List<CompletableFuture<Void>> futures = new ArrayList<>();
-            for (int i = 0; i < ordersToPlace.size(); i++) {
-                final CustomerOrder orderToConsider = ordersToPlace.get(i);
+            if (ordersToPlace.size() <= INLINE_BATCH_SIZE) {
+                runFirstLevelBranchesInline(ordersToPlace, search);
+                return;
+            }
+            if (executionMode == ExecutionMode.STRUCTURED) {
+                forkFirstLevelBranches(ordersToPlace, search);
+                return;
+            }
 
-                final List<CustomerOrder> remainingForNextCall = new ArrayList<>(ordersToPlace.size() - 1);
-                if (i > 0) remainingForNextCall.addAll(ordersToPlace.subList(0, i));
-                if (i < ordersToPlace.size() - 1) remainingForNextCall.addAll(ordersToPlace.subList(i + 1, ordersToPlace.size()));
-                final List<CustomerOrder> immutableRemaining = List.copyOf(remainingForNextCall);
+            List<PendingBranch> futures = new ArrayList<>();
+            for (int i = 0; i < ordersToPlace.size() && !search.provenOptimal; i++) {
+                final CustomerOrder orderToConsider = ordersToPlace.get(i);
 
                 for (final boolean rotate : new boolean[]{false, true}) {
-                    final int width = rotate ? orderToConsider.originalHeight : orderToConsider.originalWidth;
-                    final int height = rotate ? orderToConsider.originalWidth : orderToConsider.originalHeight;
-
-                    if (initialDockPoint.x() + width > this.rollWidth) continue;
-
-                    // --- Read local best result for pruning check ---
-                    PlacementResult currentBestForPruning = localBestBatchResultRef.get();
-                    if (currentBestForPruning != null && initialDockPoint.y() + height >= currentBestForPruning.totalHeight()) {
-                        continue;
-                    }
-
-                    final CustomerOrder placedOrderCopy = orderToConsider.copy();
-                    placedOrderCopy.setPlacement(initialDockPoint.x(), initialDockPoint.y(), rotate);
-                    final List<CustomerOrder> nextPlaced = List.of(placedOrderCopy);
-
-                    final Set<Point> nextDockingPoints = new HashSet<>(2);
-                    final Point newTopLeft = new Point(placedOrderCopy.getXLU(), placedOrderCopy.getYRO());
-                    final Point newBottomRight = new Point(placedOrderCopy.getXRO(), placedOrderCopy.getYLU());
-
-                    if (newTopLeft.x() <= this.rollWidth && !isPointCovered(newTopLeft, nextPlaced)) nextDockingPoints.add(newTopLeft);
-                    if (newBottomRight.x() <= this.rollWidth && !isPointCovered(newBottomRight, nextPlaced)) nextDockingPoints.add(newBottomRight);
-                    final Set<Point> immutableNextDocking = Set.copyOf(nextDockingPoints);
+                    final Runnable branch = firstLevelBranch(ordersToPlace, i, rotate, search);
+                    if (branch == null) continue;
 
                     // --- Launch async task calling THIS function, passing LOCAL state ---
-                    CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
-                        recursivePlaceForSingleBatch(immutableRemaining, nextPlaced, immutableNextDocking,
-                                localBestBatchResultRef, localRecursiveCallCounter); // Pass local refs!
-                    }, executor); // Use the shared executor
-                    futures.add(future);
+                    final AtomicBoolean started = new AtomicBoolean();
+                    futures.add(new PendingBranch(CompletableFuture.runAsync(() -> {
+                        if (started.compareAndSet(false, true) && !search.provenOptimal) {
+                            branch.run();
+                        }
+                    }, executor()), started)); // Use the shared executor
 
                     if (orderToConsider.originalWidth == orderToConsider.originalHeight) break;
                 }
             }
-            // Wait for parallel first-placement branches *within this batch* to complete
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            // Publish the branches so reaching the lower bound can cancel the ones not started yet
+            search.branches = futures;
+            if (search.provenOptimal) {
+                cancelBranches(search);
+            }
+            // Wait for parallel first-placement branches *within this batch* to complete. allOf completes
+            // only once every branch has: running branches are never cancelled, they return at their next node
+            try {
+                CompletableFuture.allOf(futures.stream().map(PendingBranch::future).toArray(CompletableFuture[]::new)).join();
+            } catch (CancellationException | CompletionException e) {
+                if (!search.provenOptimal || !(e instanceof CancellationException || e.getCause() instanceof CancellationException)) {
+                    throw e;
+                }
+                // Branches that had not started were cancelled because the lower bound was reached
+            }
 
         } else {
             // --- SUBSEQUENT PLACEMENTS (Sequential within this branch) ---
@@ -382,16 +1055,18 @@ public class PlacementService implements AutoCloseable {
 
             for (final Point dockPoint : sortedDockingPoints) {
                 // --- Read local best result ---
-                PlacementResult currentBestForPruning = localBestBatchResultRef.get();
+                CompactPlacement currentBestForPruning = search.best.get();
 
                 // --- Pruning 2 ---
                 if (currentBestForPruning != null && dockPoint.y() >= currentBestForPruning.totalHeight()) {
+                    if (metrics != null) metrics.prune(SearchMetrics.PruneRule.DOCK_Y);
                     break;
                 }
 
                 // --- Stronger Pruning (Opt 2b) using local best result ---
                 if (currentBestForPruning != null && minRemainingHeight != Integer.MAX_VALUE &&
                         dockPoint.y() + minRemainingHeight >= currentBestForPruning.totalHeight()) {
+                    if (metrics != null) metrics.prune(SearchMetrics.PruneRule.MIN_REMAINING);
                     break;
                 }
 
@@ -401,16 +1076,18 @@ public class PlacementService implements AutoCloseable {
 
                     // --- Pruning 3 (using local best result) ---
                     final int currentItemMinDim = Math.min(width, height);
-                    currentBestForPruning = localBestBatchResultRef.get(); // Re-read
+                    currentBestForPruning = search.best.get(); // Re-read
                     if (currentBestForPruning != null && dockPoint.y() + currentItemMinDim >= currentBestForPruning.totalHeight()) {
+                        if (metrics != null) metrics.prune(SearchMetrics.PruneRule.ITEM_MIN_SIDE);
                         continue;
                     }
 
                     if (dockPoint.x() + width > this.rollWidth) continue;
 
                     // --- Height Pruning (using local best result) ---
-                    currentBestForPruning = localBestBatchResultRef.get(); // Re-read
+                    currentBestForPruning = search.best.get(); // Re-read
                     if (currentBestForPruning != null && dockPoint.y() + height >= currentBestForPruning.totalHeight()) {
+                        if (metrics != null) metrics.prune(SearchMetrics.PruneRule.HEIGHT);
                         continue;
                     }
 
@@ -418,13 +1095,16 @@ public class PlacementService implements AutoCloseable {
                     candidateOrder.setPlacement(dockPoint.x(), dockPoint.y(), rotate);
 
                     boolean overlaps = false;
-                    for (final CustomerOrder placed : currentlyPlaced) {
-                        if (candidateOrder.overlaps(placed)) {
-                            overlaps = true;
-                            break;
-                        }
+                    if (collisionIndex != null) {
+                        overlaps = collisionIndex.overlapsAny(candidateOrder.getXLU(), candidateOrder.getYLU(),
+                                candidateOrder.getXRO(), candidateOrder.getYRO());
+                    } else {
+                        overlaps = overlapsAny(candidateOrder, currentlyPlaced) || overlapsAny(candidateOrder, search.fixedOrders);
                     }
 
+                    if (overlaps && metrics != null) {
+                        metrics.overlapRejected();
+                    }
                     if (!overlaps) {
                         List<CustomerOrder> nextPlaced = new ArrayList<>(currentlyPlaced.size() + 1);
                         nextPlaced.addAll(currentlyPlaced);
@@ -437,17 +1117,25 @@ public class PlacementService implements AutoCloseable {
                         Point newTopLeft = new Point(candidateOrder.getXLU(), candidateOrder.getYRO());
                         Point newBottomRight = new Point(candidateOrder.getXRO(), candidateOrder.getYLU());
 
-                        if (newTopLeft.x() <= this.rollWidth && !isPointCovered(newTopLeft, immutableNextPlaced)) {
+                        if (collisionIndex != null) {
+                            collisionIndex.push(candidateOrder.getXLU(), candidateOrder.getYLU(),
+                                    candidateOrder.getXRO(), candidateOrder.getYRO());
+                        }
+                        if (newTopLeft.x() <= this.rollWidth && !isPointCovered(newTopLeft, immutableNextPlaced, search.fixedOrders, collisionIndex)) {
                             nextDockingPoints.add(newTopLeft);
                         }
-                        if (newBottomRight.x() <= this.rollWidth && !isPointCovered(newBottomRight, immutableNextPlaced)) {
+                        if (newBottomRight.x() <= this.rollWidth && !isPointCovered(newBottomRight, immutableNextPlaced, search.fixedOrders, collisionIndex)) {
                             nextDockingPoints.add(newBottomRight);
                         }
                         Set<Point> immutableNextDocking = Set.copyOf(nextDockingPoints);
 
                         // --- Recursive call passing LOCAL state holders down ---
                         recursivePlaceForSingleBatch(remainingForNextCall, immutableNextPlaced, immutableNextDocking,
-                                localBestBatchResultRef, localRecursiveCallCounter); // Pass local refs!
+                                search, collisionIndex); // Pass local state!
+
+                        if (collisionIndex != null) {
+                            collisionIndex.pop(); // Backtrack
+                        }
                     }
 
                     if (orderToTry.originalWidth == orderToTry.originalHeight) break;
@@ -457,6 +1145,97 @@ public class PlacementService implements AutoCloseable {
     } // End recursivePlaceForSingleBatch
 
 
+    /**
+     * Sequential variant of the first-level fan-out for batches of at most {@link #INLINE_BATCH_SIZE}
+     * orders: the branches run one after another on the thread searching the batch.
+     */
+    private void runFirstLevelBranchesInline(final List<CustomerOrder> ordersToPlace, final BatchSearch search) {
+        for (int i = 0; i < ordersToPlace.size() && !search.provenOptimal && !search.aborted; i++) {
+            final CustomerOrder orderToConsider = ordersToPlace.get(i);
+            for (final boolean rotate : new boolean[]{false, true}) {
+                final Runnable branch = firstLevelBranch(ordersToPlace, i, rotate, search);
+                if (branch != null) {
+                    branch.run();
+                }
+                if (orderToConsider.originalWidth == orderToConsider.originalHeight) break;
+            }
+        }
+    }
+
+    /**
+     * Structured variant of the first-level fan-out: every branch runs in a virtual thread of one
+     * scope per batch. If a branch fails, its siblings are stopped and the failure is rethrown to
+     * the batch.
+     */
+    private void forkFirstLevelBranches(final List<CustomerOrder> ordersToPlace, final BatchSearch search) {
+        try (BranchScope scope = new BranchScope(true, () -> search.aborted = true)) {
+            for (int i = 0; i < ordersToPlace.size() && !search.provenOptimal; i++) {
+                final CustomerOrder orderToConsider = ordersToPlace.get(i);
+                for (final boolean rotate : new boolean[]{false, true}) {
+                    final Runnable branch = firstLevelBranch(ordersToPlace, i, rotate, search);
+                    if (branch != null) {
+                        scope.fork(() -> {
+                            branch.run();
+                            return null;
+                        });
+                    }
+                    if (orderToConsider.originalWidth == orderToConsider.originalHeight) break;
+                }
+            }
+            scope.join();
+            scope.throwIfFailed();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            search.aborted = true;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("First-level branch failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    /** Marks the batch as solved to optimality and releases the threads of its pending branches. */
+    private static void markProvenOptimal(final BatchSearch search) {
+        if (search.provenOptimal) {
+            return;
+        }
+        search.provenOptimal = true;
+        cancelBranches(search);
+    }
+
+    private static void cancelBranches(final BatchSearch search) {
+        final List<PendingBranch> branches = search.branches;
+        if (branches != null) {
+            for (PendingBranch branch : branches) {
+                // Only branches that have not started; a running one stops via provenOptimal and completes itself
+                if (branch.started().compareAndSet(false, true)) {
+                    branch.future().cancel(false);
+                }
+            }
+        }
+    }
+
+    /** Called every few thousand nodes of a batch: enforces the deadline and samples the node rate for JFR. */
+    private void sampleProgress(final BatchSearch search, final long callCount) {
+        final long now = System.nanoTime();
+        final long deadline = deadlineNanos;
+        if (Thread.currentThread().isInterrupted()) {
+            search.aborted = true; // Scope shutdown or cancelled caller
+        }
+        if (deadline != NO_DEADLINE && now - deadline >= 0 && !runCancelled) {
+            runCancelled = true;
+            System.out.println("Placement deadline reached, cancelling run.");
+        }
+        if ((callCount & NODE_RATE_SAMPLE_MASK) == 0 && PlacementEvents.recorderInitialized()) {
+            PlacementEvents.NodeRate event = new PlacementEvents.NodeRate();
+            if (event.shouldCommit()) {
+                double seconds = (now - search.startNanos) / 1_000_000_000.0;
+                event.batchIndex = search.batchIndex;
+                event.nodes = callCount;
+                event.nodesPerSecond = seconds > 0 ? callCount / seconds : 0.0;
+                event.commit();
+            }
+        }
+    }
+
     // --- Static helper methods (unchanged) ---
 
     /** Static helper, checks coverage against a list of placed orders */
@@ -472,8 +1251,26 @@ public class PlacementService implements AutoCloseable {
         return false;
     }
 
+    /** Static helper, checks coverage via the branch's collision index (which holds the fixed orders too) if there is one */
+    private static boolean isPointCovered(final Point p, final List<CustomerOrder> orders, final List<CustomerOrder> fixedOrders,
+                                          final CollisionIndex collisionIndex) {
+        return collisionIndex != null
+                ? collisionIndex.covers(p.x(), p.y())
+                : isPointCovered(p, orders) || isPointCovered(p, fixedOrders);
+    }
+
+    /** Static helper, checks a placed candidate against a list of placed orders */
+    private static boolean overlapsAny(final CustomerOrder candidate, final List<CustomerOrder> orders) {
+        for (final CustomerOrder placed : orders) {
+            if (candidate.overlaps(placed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /** Static helper, calculates valid docking points */
-    private static Set<Point> calculateDockingPoints(final List<CustomerOrder> placedOrders, final int rollWidth) {
+    public static Set<Point> calculateDockingPoints(final List<CustomerOrder> placedOrders, final int rollWidth) {
         if (placedOrders.isEmpty()) {
             return Set.of(new Point(0, 0));
         }
@@ -0,0 +1,52 @@
+package verarbeitung;
+
+import java.util.Map;
+
+/**
+ * Management interface of a {@link PlacementService}, registered via
+ * {@link PlacementService#registerMBean()} under "verarbeitung:type=PlacementService,id=&lt;n&gt;".
+ * Usable with jconsole/VisualVM or any JMX client (e.g. over -Dcom.sun.management.jmxremote.port
+ * on a headless box).
+ * <p>
+ * Cancelling does not discard work: a cancelled batch stops as soon as it has a complete
+ * placement and keeps the best one found so far.
+ */
+public interface PlacementServiceMXBean {
+
+    /** @return The best height found so far per batch (1-based batch index), for running and finished batches. */
+    Map<Integer, Integer> getBestHeightPerBatch();
+
+    /** @return The number of search nodes visited by this service, including running batches. */
+    long getNodeCount();
+
+    /**
+     * @return The average node rate of the running run since it started, or of the last finished
+     *         run; 0 before the first run. Reading it changes nothing, so several clients can poll.
+     */
+    double getNodesPerSecond();
+
+    /** @return The number of running batch searches and first-level branch tasks. */
+    int getActiveTasks();
+
+    /** @return Milliseconds until the deadline, or -1 if there is none. */
+    long getRemainingDeadlineMillis();
+
+    /**
+     * Cancels one running batch.
+     *
+     * @param batchIndex The 1-based batch index.
+     * @return True if the batch was running.
+     */
+    boolean cancelBatch(int batchIndex);
+
+    /** Cancels the current run: running and not yet started batches stop at their first complete placement. */
+    void cancelRun();
+
+    /**
+     * Sets a deadline for the running search; it is only ever moved earlier. When it passes, the
+     * run is cancelled as by {@link #cancelRun()}. Every new run starts without a deadline.
+     *
+     * @param millisFromNow The time from now in milliseconds.
+     */
+    void tightenDeadline(long millisFromNow);
+}
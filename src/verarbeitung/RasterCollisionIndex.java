@@ -0,0 +1,212 @@
+package verarbeitung;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Collision index over an occupancy raster: one bitset row per millimetre of height, one bit per
+ * millimetre of roll width. Coordinates are integer millimetres and the roll is narrow (900 mm in
+ * the bundled inputs), so a row is only a few longs.
+ * <p>
+ * Every 64 x 16 mm tile keeps the number of occupied cells. An overlap query first looks at the
+ * tiles it touches: all empty means no overlap, one full tile means overlap. Only the partly
+ * occupied tiles are checked exactly by AND-ing the tile's rows with the query mask. Coverage of a
+ * docking point is a single bit test. Push and pop update the bits and tile counts incrementally
+ * (placed rectangles never overlap, so pop can simply clear them).
+ * <p>
+ * Memory is bounded: rows are allocated on demand as placements rise and never beyond
+ * {@link #MAX_ROWS}. Anything above that height is handled by the packed scan of the base class,
+ * which also keeps the rectangle stack needed for pop.
+ * <p>
+ * Rasters are reused through a small pool: a first-level branch borrows one when it starts
+ * ({@link #borrow(int, int)}) and returns it emptied when it ends ({@link #release()}). The pool
+ * keeps at most one idle raster per processor, so branches in virtual threads (one thread per
+ * branch) reuse rasters just like the branches of a fixed set of pool threads.
+ */
+class RasterCollisionIndex extends PackedCollisionIndex {
+
+    static final int MAX_ROWS = 1 << 14; // 16 m of roll per batch, at most ~2 MB per raster at 900 mm
+    private static final int TILE_ROWS_SHIFT = 4; // 16 rows per tile
+    private static final int TILE_ROWS = 1 << TILE_ROWS_SHIFT;
+
+    // Idle rasters, at most one per processor; more running branches allocate and drop the surplus
+    private static final BlockingQueue<RasterCollisionIndex> IDLE =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private final int rollWidth;
+    private final int words;       // Longs per row (= tiles per tile row)
+    private final int[] fullCount; // Cells of a completely occupied tile, per tile column
+    private long[] bits;           // rows * words
+    private int[] tileCount;       // (rows / TILE_ROWS) * words, occupied cells per tile
+    private int rows;              // Allocated rows, a multiple of TILE_ROWS
+
+    RasterCollisionIndex(int initialCapacity, int rollWidth) {
+        super(initialCapacity);
+        if (rollWidth <= 0) {
+            throw new IllegalArgumentException("Roll width must be positive.");
+        }
+        this.rollWidth = rollWidth;
+        this.words = (rollWidth + 63) >>> 6;
+        this.fullCount = new int[words];
+        for (int w = 0; w < words; w++) {
+            fullCount[w] = TILE_ROWS * Math.min(64, rollWidth - (w << 6));
+        }
+        this.bits = new long[0];
+        this.tileCount = new int[0];
+    }
+
+    /**
+     * Takes an empty raster from the pool, or creates one if none of this roll width is idle.
+     * The caller owns it until {@link #release()}.
+     *
+     * @param capacity  The expected number of rectangles (batch size).
+     * @param rollWidth The roll width in millimetres.
+     */
+    static RasterCollisionIndex borrow(int capacity, int rollWidth) {
+        RasterCollisionIndex index;
+        while ((index = IDLE.poll()) != null) {
+            if (index.rollWidth == rollWidth) {
+                return index;
+            }
+            // Raster of another roll width: dropped
+        }
+        return new RasterCollisionIndex(capacity, rollWidth);
+    }
+
+    /** Empties the raster and returns it to the pool (dropped if the pool is full). */
+    @Override
+    public void release() {
+        clear();
+        IDLE.offer(this);
+    }
+
+    /** Removes all rectangles; only the rows that were occupied are touched. */
+    void clear() {
+        while (count > 0) {
+            pop();
+        }
+    }
+
+    @Override
+    public void push(int x1, int y1, int x2, int y2) {
+        super.push(x1, y1, x2, y2);
+        int yEnd = Math.min(y2, MAX_ROWS);
+        if (yEnd > rows) {
+            grow(yEnd);
+        }
+        raster(x1, y1, Math.min(x2, rollWidth), yEnd, true);
+    }
+
+    @Override
+    public void pop() {
+        int top = count - 1;
+        raster(xl[top], yl[top], Math.min(xr[top], rollWidth), Math.min(yr[top], MAX_ROWS), false);
+        super.pop();
+    }
+
+    @Override
+    public boolean overlapsAny(int x1, int y1, int x2, int y2) {
+        if (y2 > MAX_ROWS || x2 > rollWidth || x1 < 0 || y1 < 0) {
+            return super.overlapsAny(x1, y1, x2, y2); // Outside the raster
+        }
+        int yEnd = Math.min(y2, rows); // Nothing is placed above the allocated rows
+        if (x1 >= x2 || y1 >= yEnd) {
+            return false;
+        }
+        int w1 = x1 >>> 6;
+        int w2 = (x2 - 1) >>> 6;
+        int t1 = y1 >>> TILE_ROWS_SHIFT;
+        int t2 = (yEnd - 1) >>> TILE_ROWS_SHIFT;
+
+        // --- Coarse pass: empty tiles accept, a full tile rejects ---
+        boolean mixed = false;
+        for (int t = t1; t <= t2; t++) {
+            int tileBase = t * words;
+            for (int w = w1; w <= w2; w++) {
+                int occupied = tileCount[tileBase + w];
+                if (occupied == 0) continue;
+                if (occupied == fullCount[w]) return true;
+                mixed = true;
+            }
+        }
+        if (!mixed) {
+            return false;
+        }
+
+        // --- Exact pass: AND the rows of the partly occupied tiles with the query mask ---
+        for (int t = t1; t <= t2; t++) {
+            int tileBase = t * words;
+            int rowStart = Math.max(y1, t << TILE_ROWS_SHIFT);
+            int rowEnd = Math.min(yEnd, (t + 1) << TILE_ROWS_SHIFT);
+            for (int w = w1; w <= w2; w++) {
+                if (tileCount[tileBase + w] == 0) continue;
+                long mask = wordMask(w, x1, x2);
+                for (int r = rowStart; r < rowEnd; r++) {
+                    if ((bits[r * words + w] & mask) != 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean covers(int px, int py) {
+        if (py >= MAX_ROWS) {
+            return super.covers(px, py);
+        }
+        if (px < 0 || py < 0 || px >= rollWidth || py >= rows) {
+            return false;
+        }
+        return (bits[py * words + (px >>> 6)] & (1L << px)) != 0; // Shift uses the low 6 bits
+    }
+
+    // Sets or clears [x1, x2) x [y1, y2) and updates the tile counts
+    private void raster(int x1, int y1, int x2, int y2, boolean set) {
+        if (x1 >= x2 || y1 >= y2) {
+            return;
+        }
+        int w1 = x1 >>> 6;
+        int w2 = (x2 - 1) >>> 6;
+        for (int w = w1; w <= w2; w++) {
+            long mask = wordMask(w, x1, x2);
+            int cells = Long.bitCount(mask);
+            for (int r = y1; r < y2; r++) {
+                int i = r * words + w;
+                if (set) {
+                    bits[i] |= mask;
+                } else {
+                    bits[i] &= ~mask;
+                }
+            }
+            // Tile counts per tile row: cells of this column times the rows inside the tile
+            for (int t = y1 >>> TILE_ROWS_SHIFT; t <= (y2 - 1) >>> TILE_ROWS_SHIFT; t++) {
+                int rowStart = Math.max(y1, t << TILE_ROWS_SHIFT);
+                int rowEnd = Math.min(y2, (t + 1) << TILE_ROWS_SHIFT);
+                int delta = cells * (rowEnd - rowStart);
+                tileCount[t * words + w] += set ? delta : -delta;
+            }
+        }
+    }
+
+    // Bits [x1, x2) restricted to word w
+    private static long wordMask(int w, int x1, int x2) {
+        int lo = Math.max(x1 - (w << 6), 0);
+        int hi = Math.min(x2 - (w << 6), 64); // Exclusive
+        long upper = hi == 64 ? -1L : (1L << hi) - 1;
+        return upper & (-1L << lo);
+    }
+
+    private void grow(int minRows) {
+        int newRows = Math.max(rows * 2, TILE_ROWS * 16);
+        while (newRows < minRows) {
+            newRows *= 2;
+        }
+        newRows = Math.min(newRows, MAX_ROWS);
+        bits = Arrays.copyOf(bits, newRows * words);
+        tileCount = Arrays.copyOf(tileCount, (newRows >>> TILE_ROWS_SHIFT) * words);
+        rows = newRows;
+    }
+}
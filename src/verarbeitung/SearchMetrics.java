@@ -0,0 +1,253 @@
+package verarbeitung;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the recursive batch search: nodes per depth, prunes per rule, overlap rejections,
+ * incumbent improvements and per-batch wall/CPU time. All counters are striped (LongAdder), so the
+ * search threads do not contend on them. The metrics can be read while a run is in progress
+ * ({@link #toJson()} returns a snapshot) and written as a JSON summary at the end.
+ * <p>
+ * Metrics are off unless enabled on the {@link PlacementService}; the search then only pays a null
+ * check per node.
+ */
+public final class SearchMetrics {
+
+    /** The pruning rules of the recursive search, named as in the code comments. */
+    public enum PruneRule {
+        /** Pruning 1: the intermediate height already reaches the incumbent. */
+        INTERMEDIATE_HEIGHT("1"),
+        /** Pruning 2: the docking point lies at or above the incumbent height. */
+        DOCK_Y("2"),
+        /** Pruning 2b: docking point plus the smallest remaining side reaches the incumbent. */
+        MIN_REMAINING("2b"),
+        /** Pruning 3: docking point plus the smaller side of the current order reaches the incumbent. */
+        ITEM_MIN_SIDE("3"),
+        /** Height pruning: the current order in this orientation would reach the incumbent. */
+        HEIGHT("height");
+
+        private final String label;
+
+        PruneRule(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /** An incumbent improvement of one batch, timestamped relative to the creation of the metrics. */
+    public record Improvement(int batchIndex, int height, long nanosSinceStart) {
+    }
+
+    private static final int LATENCY_BUCKETS = 40; // log2 buckets of microseconds
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final long startNanos = System.nanoTime();
+    private final long startEpochMillis = System.currentTimeMillis();
+    private final LongAdder[] nodesPerDepth;
+    private final LongAdder[] prunes = newAdders(PruneRule.values().length);
+    private final LongAdder overlapRejections = new LongAdder();
+    private final LongAdder[] branchLatency = newAdders(LATENCY_BUCKETS);
+    private final ConcurrentLinkedQueue<Improvement> improvements = new ConcurrentLinkedQueue<>();
+    private final Map<Integer, BatchStats> batches = new ConcurrentHashMap<>();
+    private final boolean cpuTimeSupported = THREADS.isCurrentThreadCpuTimeSupported();
+
+    /**
+     * @param maxDepth The largest search depth tracked separately (the batch size); deeper nodes are
+     *                 counted in the last bucket.
+     */
+    public SearchMetrics(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Max depth must not be negative.");
+        }
+        this.nodesPerDepth = newAdders(maxDepth + 1);
+        if (cpuTimeSupported && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    // --- Recording (called from the search threads) ---
+
+    void node(int depth) {
+        nodesPerDepth[Math.min(depth, nodesPerDepth.length - 1)].increment();
+    }
+
+    void prune(PruneRule rule) {
+        prunes[rule.ordinal()].increment();
+    }
+
+    void overlapRejected() {
+        overlapRejections.increment();
+    }
+
+    void improvement(int batchIndex, int height) {
+        improvements.add(new Improvement(batchIndex, height, System.nanoTime() - startNanos));
+        BatchStats stats = batches.get(batchIndex);
+        if (stats != null) {
+            stats.bestHeight.accumulateAndGet(height, Math::min); // Improvements may be recorded out of order
+        }
+    }
+
+    /** @return The CPU time of the calling thread in nanoseconds, or 0 if not supported (e.g. on virtual threads). */
+    long threadCpuNanos() {
+        return cpuTimeSupported && !Thread.currentThread().isVirtual() ? THREADS.getCurrentThreadCpuTime() : 0L;
+    }
+
+    /** Records one first-level branch: its wall time goes into the latency histogram, its CPU time to the batch. */
+    void branchFinished(int batchIndex, long wallNanos, long cpuNanos) {
+        long micros = Math.max(1, wallNanos / 1_000);
+        branchLatency[Math.min(63 - Long.numberOfLeadingZeros(micros), LATENCY_BUCKETS - 1)].increment();
+        BatchStats stats = batches.get(batchIndex);
+        if (stats != null) {
+            stats.cpuNanos.add(cpuNanos);
+        }
+    }
+
+    void batchStarted(int batchIndex, int size) {
+        batches.put(batchIndex, new BatchStats(size, System.nanoTime()));
+    }
+
+    void batchFinished(int batchIndex, long nodes) {
+        BatchStats stats = batches.get(batchIndex);
+        if (stats != null) {
+            stats.nodes = nodes;
+            stats.wallNanos = System.nanoTime() - stats.startNanos;
+        }
+    }
+
+    // --- Pull API ---
+
+    /** @return The number of search nodes visited at the given depth (number of orders placed). */
+    public long getNodes(int depth) {
+        return depth < nodesPerDepth.length ? nodesPerDepth[depth].sum() : 0L;
+    }
+
+    /** @return The total number of search nodes visited. */
+    public long getTotalNodes() {
+        long total = 0;
+        for (LongAdder adder : nodesPerDepth) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    public long getPrunes(PruneRule rule) {
+        return prunes[rule.ordinal()].sum();
+    }
+
+    public long getOverlapRejections() {
+        return overlapRejections.sum();
+    }
+
+    /** @return The incumbent improvements recorded so far, in recording order. */
+    public List<Improvement> getImprovements() {
+        return List.copyOf(improvements);
+    }
+
+    /** @return The nanoseconds elapsed since the metrics were created. */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Returns a JSON snapshot of all counters. It can be taken while the search is running; the
+     * counters are read one after the other, so the snapshot is not atomic across counters.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("{\n");
+        sb.append("  \"startEpochMillis\": ").append(startEpochMillis).append(",\n");
+        sb.append("  \"elapsedNanos\": ").append(getElapsedNanos()).append(",\n");
+        sb.append("  \"totalNodes\": ").append(getTotalNodes()).append(",\n");
+
+        sb.append("  \"nodesPerDepth\": [");
+        int lastDepth = nodesPerDepth.length - 1;
+        while (lastDepth > 0 && nodesPerDepth[lastDepth].sum() == 0) lastDepth--;
+        for (int d = 0; d <= lastDepth; d++) {
+            if (d > 0) sb.append(", ");
+            sb.append(nodesPerDepth[d].sum());
+        }
+        sb.append("],\n");
+
+        sb.append("  \"prunes\": {");
+        PruneRule[] rules = PruneRule.values();
+        for (int i = 0; i < rules.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append('"').append(rules[i].label()).append("\": ").append(prunes[i].sum());
+        }
+        sb.append("},\n");
+        sb.append("  \"overlapRejections\": ").append(overlapRejections.sum()).append(",\n");
+
+        sb.append("  \"branchLatencyMicrosLog2\": {");
+        boolean first = true;
+        for (int b = 0; b < LATENCY_BUCKETS; b++) {
+            long count = branchLatency[b].sum();
+            if (count == 0) continue;
+            if (!first) sb.append(", ");
+            first = false;
+            sb.append("\"<").append(1L << (b + 1)).append("\": ").append(count);
+        }
+        sb.append("},\n");
+
+        sb.append("  \"improvements\": [");
+        first = true;
+        for (Improvement improvement : improvements) {
+            sb.append(first ? "\n" : ",\n");
+            first = false;
+            sb.append(String.format(Locale.ROOT, "    {\"batch\": %d, \"height\": %d, \"nanos\": %d}",
+                    improvement.batchIndex(), improvement.height(), improvement.nanosSinceStart()));
+        }
+        sb.append(first ? "],\n" : "\n  ],\n");
+
+        sb.append("  \"batches\": [");
+        List<Integer> batchIndexes = new ArrayList<>(batches.keySet());
+        batchIndexes.sort(null);
+        first = true;
+        for (int batchIndex : batchIndexes) {
+            BatchStats stats = batches.get(batchIndex);
+            sb.append(first ? "\n" : ",\n");
+            first = false;
+            long wall = stats.wallNanos >= 0 ? stats.wallNanos : System.nanoTime() - stats.startNanos;
+            sb.append(String.format(Locale.ROOT,
+                    "    {\"batch\": %d, \"size\": %d, \"finished\": %b, \"nodes\": %d, \"bestHeight\": %d, \"wallNanos\": %d, \"cpuNanos\": %d}",
+                    batchIndex, stats.size, stats.wallNanos >= 0, stats.nodes, stats.bestHeight.get() == Integer.MAX_VALUE ? -1 : stats.bestHeight.get(), wall, stats.cpuNanos.sum()));
+        }
+        sb.append(first ? "]\n" : "\n  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /** Per-batch figures; written by the thread that owns the batch, read by snapshots. */
+    private static final class BatchStats {
+        final int size;
+        final long startNanos;
+        final LongAdder cpuNanos = new LongAdder();
+        volatile long wallNanos = -1; // -1 while running
+        volatile long nodes;
+        final AtomicInteger bestHeight = new AtomicInteger(Integer.MAX_VALUE);
+
+        BatchStats(int size, long startNanos) {
+            this.size = size;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package verarbeitung;
+
+import model.CustomerOrder;
+import model.PlacementResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Online placement for a continuous order intake. Orders are pushed in (via {@link #submit} or as a
+ * {@link Flow.Subscriber}), collected into windows of up to {@code optimizationDepth} orders and
+ * optimized with the wrapped {@link PlacementService} on a background thread while new orders keep
+ * arriving. A window is placed once it is full, or with the orders it has once no new order
+ * arrived for {@value #IDLE_MILLIS} ms.
+ * <p>
+ * Every window is packed onto the committed top profile: it starts at the docking points of the
+ * committed placements near the top, so gaps left below the previous top can still be filled.
+ * After each window only the placements that end at least {@code lookaheadHeight} below the top of
+ * the window are committed and published with absolute roll coordinates; the rest are carried into
+ * the next window and re-optimized together with the new orders. A full window always commits
+ * something. Memory is bounded by the intake queue capacity, one window and the committed orders
+ * within {@code lookaheadHeight} plus the largest order side below the committed top, independent
+ * of the length of the stream.
+ */
+public class StreamingPlacementService implements Flow.Processor<CustomerOrder, CustomerOrder>, AutoCloseable {
+
+    // Marks the end of the input stream in the intake queue
+    private static final CustomerOrder END_OF_STREAM = new CustomerOrder(0, 0, Integer.MIN_VALUE, "");
+    // A partial window is placed once the intake stayed empty this long
+    private static final long IDLE_MILLIS = 50;
+
+    private final PlacementService placementService;
+    private final int windowSize;
+    private final int lookaheadHeight;
+    private final BlockingQueue<CustomerOrder> intake;
+    private final SubmissionPublisher<CustomerOrder> committed = new SubmissionPublisher<>();
+    private final Thread solverThread;
+
+    private volatile Flow.Subscription upstream;
+    private volatile int committedHeight = 0;
+    private volatile boolean inputCompleted = false;
+
+    // Committed top profile, used by the solver thread only
+    private final List<CustomerOrder> profile = new ArrayList<>(); // Committed orders ending above profileFloor (absolute)
+    private int profileFloor = 0;                                  // Windows are placed above this height
+    private int largestSide = 0;                                   // Largest order side seen so far
+
+    /**
+     * @param placementService The service optimizing each window; its optimization depth is the window size.
+     * @param lookaheadHeight  Height (mm) at the top of a window that stays open for re-optimization.
+     * @param queueCapacity    Maximum number of orders buffered before producers are blocked.
+     */
+    public StreamingPlacementService(PlacementService placementService, int lookaheadHeight, int queueCapacity) {
+        if (placementService == null) {
+            throw new IllegalArgumentException("PlacementService cannot be null.");
+        }
+        if (lookaheadHeight < 0) {
+            throw new IllegalArgumentException("Lookahead height cannot be negative.");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive.");
+        }
+        this.placementService = placementService;
+        this.windowSize = placementService.getOptimizationDepth();
+        this.lookaheadHeight = lookaheadHeight;
+        this.intake = new ArrayBlockingQueue<>(queueCapacity);
+        this.solverThread = new Thread(this::solveLoop, "streaming-placement");
+        this.solverThread.setDaemon(true);
+        this.solverThread.start();
+    }
+
+    /**
+     * Pushes an order into the stream, blocking while the intake queue is full.
+     *
+     * @param order The order to place.
+     * @throws InterruptedException If interrupted while waiting for queue space.
+     */
+    public void submit(CustomerOrder order) throws InterruptedException {
+        if (inputCompleted) {
+            throw new IllegalStateException("Stream already completed.");
+        }
+        intake.put(order);
+    }
+
+    /** Signals the end of the input; the open window is placed and committed completely. */
+    public void complete() {
+        if (inputCompleted) return;
+        inputCompleted = true;
+        try {
+            intake.put(END_OF_STREAM);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** @return The absolute roll height covered by all placements committed so far. */
+    public int getCommittedHeight() {
+        return committedHeight;
+    }
+
+    // --- Flow.Publisher: committed placements ---
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CustomerOrder> subscriber) {
+        committed.subscribe(subscriber);
+    }
+
+    // --- Flow.Subscriber: incoming orders ---
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        subscription.request(intake.remainingCapacity());
+    }
+
+    @Override
+    public void onNext(CustomerOrder order) {
+        // Demand never exceeds the free queue capacity, so this does not block
+        if (!intake.offer(order)) {
+            throw new IllegalStateException("Upstream exceeded requested demand.");
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        inputCompleted = true;
+        solverThread.interrupt();
+        committed.closeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        complete();
+    }
+
+    @Override
+    public void close() {
+        complete();
+        try {
+            solverThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Background solver ---
+
+    private void solveLoop() {
+        final List<CustomerOrder> window = new ArrayList<>(windowSize);
+        boolean ended = false;
+        try {
+            while (!ended || !window.isEmpty()) {
+                // 1. Take the arrived orders: wait while there is nothing new to place, then only briefly
+                boolean added = false;
+                while (!ended && window.size() < windowSize) {
+                    CustomerOrder next = added ? intake.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS) : intake.take();
+                    if (next == null) break; // Idle: place the partial window
+                    if (next == END_OF_STREAM) {
+                        ended = true;
+                    } else {
+                        window.add(next);
+                        largestSide = Math.max(largestSide, Math.max(next.originalWidth, next.originalHeight));
+                        added = true;
+                        Flow.Subscription subscription = upstream;
+                        if (subscription != null) subscription.request(1);
+                    }
+                }
+                if (window.isEmpty()) break;
+
+                // 2. Optimize the window on the committed profile (coordinates relative to the floor)
+                PlacementResult result = placementService.optimizeBatchOnProfile(window, profileAboveFloor());
+                if (result == null || result.placedOrders().isEmpty()) {
+                    System.err.printf("Streaming window of %d orders could not be placed; dropping it.%n", window.size());
+                    window.clear();
+                    continue;
+                }
+
+                // 3. Commit everything below the lookahead band, carry the rest
+                final int commitLimit = ended ? Integer.MAX_VALUE : result.totalHeight() - lookaheadHeight;
+                List<CustomerOrder> toCommit = new ArrayList<>();
+                List<CustomerOrder> carried = new ArrayList<>();
+                for (CustomerOrder placed : result.placedOrders()) {
+                    (placed.getYRO() <= commitLimit ? toCommit : carried).add(placed);
+                }
+                if (toCommit.isEmpty() && window.size() >= windowSize) {
+                    // Lookahead covers the whole full window: commit it anyway to keep memory bounded
+                    toCommit.addAll(carried);
+                    carried.clear();
+                }
+                commit(toCommit);
+
+                window.clear();
+                for (CustomerOrder order : carried) {
+                    CustomerOrder open = order.copy();
+                    open.unsetPlacement();
+                    window.add(open);
+                }
+            }
+            committed.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            committed.close();
+        } catch (RuntimeException e) {
+            committed.closeExceptionally(e);
+        }
+    }
+
+    // The committed orders as obstacles relative to the floor, cut off at the floor
+    private List<CustomerOrder> profileAboveFloor() {
+        List<CustomerOrder> fixed = new ArrayList<>(profile.size());
+        for (CustomerOrder order : profile) {
+            int bottom = Math.max(order.getYLU(), profileFloor);
+            CustomerOrder obstacle = new CustomerOrder(order.getXRO() - order.getXLU(), order.getYRO() - bottom,
+                    order.id, order.description);
+            obstacle.setPlacement(order.getXLU(), bottom - profileFloor, false);
+            fixed.add(obstacle);
+        }
+        return fixed;
+    }
+
+    private void commit(List<CustomerOrder> orders) {
+        final int offset = profileFloor;
+        int newHeight = committedHeight;
+        orders.sort(Comparator.comparingInt(CustomerOrder::getYLU).thenComparingInt(CustomerOrder::getXLU));
+        List<CustomerOrder> absolutes = new ArrayList<>(orders.size());
+        for (CustomerOrder order : orders) {
+            CustomerOrder absolute = order.copy();
+            absolute.placedY += offset;
+            absolute.updateDerivedPlacementFields();
+            newHeight = Math.max(newHeight, absolute.getYRO());
+            absolutes.add(absolute);
+        }
+        profile.addAll(absolutes);
+        // Subscribers see the height that includes every placement they receive
+        committedHeight = newHeight;
+
+        // Gaps deeper than the lookahead band plus one order below the top are given up
+        profileFloor = Math.max(profileFloor, newHeight - lookaheadHeight - largestSide);
+        profile.removeIf(order -> order.getYRO() <= profileFloor);
+
+        for (CustomerOrder absolute : absolutes) {
+            committed.submit(absolute); // Blocks if a subscriber's buffer is full
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package verarbeitung;
+
+import model.CompactPlacement;
+import model.CustomerOrder;
+import model.PlacementResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Distributed search with worker threads on localhost, including workers that die, hang or fail.
+ */
+class BatchCoordinatorTest {
+
+    private static final int ROLL_WIDTH = Fixtures.ROLL_WIDTH;
+    private static final int DEPTH = 5;
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private static int localHeight() {
+        return Fixtures.localHeight(Fixtures.test4Orders(), DEPTH);
+    }
+
+    // --- Coordinator with several workers ---
+
+    @Test
+    void localWorkersFindTheSingleJvmResult() {
+        PlacementResult result = solve(3, null, 0);
+        assertEquals(5, result.placedOrders().size());
+        assertEquals(localHeight(), result.totalHeight());
+    }
+
+    @Test
+    void workerDyingAfterUnbackedBoundDoesNotLoseItsBranch() {
+        // The old protocol took this height as the batch bound and reseeded the requeued branch with it
+        AtomicBoolean gotJob = new AtomicBoolean();
+        PlacementResult result = solve(2, (job, firstIndex, batch, in, out) -> {
+            gotJob.set(true);
+            BatchProtocol.writeBound(out, job, 1);
+            return false;
+        }, 0);
+        assertTrue(gotJob.get(), "The dying worker never received a job");
+        assertEquals(5, result.placedOrders().size());
+        assertEquals(localHeight(), result.totalHeight());
+    }
+
+    @Test
+    void silentWorkerTimesOutAndItsBranchIsReassigned() {
+        AtomicBoolean gotJob = new AtomicBoolean();
+        PlacementResult result = solve(2, (job, firstIndex, batch, in, out) -> {
+            gotJob.set(true);
+            while (in.read() >= 0) {
+                // Stays connected without answering (ignoring bounds) until the coordinator gives up
+            }
+            return false;
+        }, 500);
+        assertTrue(gotJob.get(), "The silent worker never received a job");
+        assertEquals(5, result.placedOrders().size());
+        assertEquals(localHeight(), result.totalHeight());
+    }
+
+    @Test
+    void failedBranchIsSkippedAndTheHealthyWorkerPlacesAllOrders() {
+        int[] failedIndex = {-1};
+        List<CustomerOrder> sortedBatch = new ArrayList<>();
+        PlacementResult result = solve(1, (job, firstIndex, batch, in, out) -> {
+            failedIndex[0] = firstIndex;
+            sortedBatch.addAll(batch);
+            BatchProtocol.writeFailed(out, job, "test failure");
+            return false; // Fails exactly one branch, then disconnects
+        }, 0);
+        assertTrue(failedIndex[0] >= 0, "The failing worker never received a job");
+
+        // The best layout among the other first-level branches
+        int expectedHeight = Integer.MAX_VALUE;
+        try (PlacementService service = new PlacementService(ROLL_WIDTH, DEPTH, false)) {
+            for (int i = 0; i < sortedBatch.size(); i++) {
+                if (i == failedIndex[0]) continue;
+                List<CustomerOrder> copies = new ArrayList<>();
+                sortedBatch.forEach(order -> copies.add(order.copy()));
+                CompactPlacement branch = service.optimizeFirstLevelBranch(copies, i, new AtomicReference<>());
+                if (branch != null) {
+                    expectedHeight = Math.min(expectedHeight, branch.totalHeight());
+                }
+            }
+        }
+        assertEquals(5, result.placedOrders().size());
+        assertEquals(expectedHeight, result.totalHeight());
+    }
+
+    // --- Worker side ---
+
+    @Test
+    void workerAnswersFailedWhenTheSearchThrows() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                Thread worker = Thread.ofPlatform().daemon().start(
+                        new BatchWorker("127.0.0.1", server.getLocalPort()));
+                try (Socket socket = server.accept()) {
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                    // First index out of range: the branch search throws
+                    BatchProtocol.writeJob(out, 7, ROLL_WIDTH, 99, BatchProtocol.NO_BOUND, Fixtures.test4Orders());
+                    byte type;
+                    do {
+                        type = in.readByte();
+                        assertEquals(7, in.readInt());
+                    } while (type == BatchProtocol.HEARTBEAT);
+                    assertEquals(BatchProtocol.FAILED, type);
+                    in.readUTF();
+                    out.writeByte(BatchProtocol.SHUTDOWN);
+                    out.flush();
+                }
+                worker.join();
+            }
+        });
+    }
+
+    // --- Helpers ---
+
+    /** Behaviour of a fake worker for one job; returns true to keep serving jobs. */
+    private interface FakeJob {
+        boolean handle(int jobId, int firstIndex, List<CustomerOrder> batch, DataInputStream in, DataOutputStream out)
+                throws IOException;
+    }
+
+    private static PlacementResult solve(int realWorkers, FakeJob fake, int workerTimeoutMillis) {
+        return assertTimeoutPreemptively(TIMEOUT, () -> {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+            try (BatchCoordinator coordinator = new BatchCoordinator(ROLL_WIDTH, DEPTH, false, address)) {
+                if (workerTimeoutMillis > 0) {
+                    coordinator.setWorkerTimeout(workerTimeoutMillis);
+                }
+                int workers = 0;
+                // The fake connects first, so its dispatcher starts first and takes a branch
+                if (fake != null) {
+                    Thread.ofPlatform().daemon().start(() -> runFake(coordinator.getPort(), fake));
+                    coordinator.awaitWorkers(++workers, TIMEOUT.toMillis());
+                }
+                for (int i = 0; i < realWorkers; i++) {
+                    Thread.ofPlatform().daemon().start(new BatchWorker("127.0.0.1", coordinator.getPort()));
+                }
+                coordinator.awaitWorkers(workers + realWorkers, TIMEOUT.toMillis());
+                return coordinator.findOptimalPlacementDistributed(Fixtures.test4Orders());
+            }
+        });
+    }
+
+    private static void runFake(int port, FakeJob fake) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (in.readByte() == BatchProtocol.JOB) {
+                int jobId = in.readInt();
+                in.readInt(); // rollWidth
+                int firstIndex = in.readInt();
+                in.readInt(); // bound
+                List<CustomerOrder> batch = BatchProtocol.readOrders(in);
+                if (!fake.handle(jobId, firstIndex, batch, in, out)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Closed by the coordinator
+        }
+    }
+}
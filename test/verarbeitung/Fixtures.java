@@ -0,0 +1,48 @@
+package verarbeitung;
+
+import model.CustomerOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inputs shared by the tests, taken from the bundled *.in files, and their local batch result.
+ */
+final class Fixtures {
+
+    static final int ROLL_WIDTH = 900;
+
+    private Fixtures() {
+    }
+
+    /** Test_4.in: one batch of five orders (depth 5). */
+    static List<CustomerOrder> test4Orders() {
+        return new ArrayList<>(List.of(
+                new CustomerOrder(150, 150, 1, "Part A"),
+                new CustomerOrder(200, 300, 2, "Part B"),
+                new CustomerOrder(400, 100, 3, "Part C"),
+                new CustomerOrder(210, 297, 4, "Part D"),
+                new CustomerOrder(300, 300, 5, "Part E")));
+    }
+
+    /** Test_8.in: 25 orders (depth 6). */
+    static List<CustomerOrder> test8Orders() {
+        int[][] sizes = {
+                {100, 100}, {200, 150}, {150, 200}, {300, 100}, {100, 300}, {250, 250}, {50, 400},
+                {400, 50}, {210, 297}, {297, 210}, {120, 180}, {180, 120}, {330, 110}, {110, 330},
+                {220, 220}, {80, 80}, {450, 150}, {150, 450}, {600, 100}, {100, 600}, {270, 270},
+                {190, 310}, {310, 190}, {500, 120}, {120, 500}};
+        List<CustomerOrder> orders = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) {
+            orders.add(new CustomerOrder(sizes[i][0], sizes[i][1], i + 1, "Ord " + (char) ('A' + i)));
+        }
+        return orders;
+    }
+
+    /** Height of the single-JVM batch search, the reference for the other search modes. */
+    static int localHeight(List<CustomerOrder> orders, int depth) {
+        try (PlacementService service = new PlacementService(ROLL_WIDTH, depth, false)) {
+            return service.findOptimalPlacementParallelBatches(orders).totalHeight();
+        }
+    }
+}
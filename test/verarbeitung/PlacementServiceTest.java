@@ -0,0 +1,61 @@
+package verarbeitung;
+
+import model.CustomerOrder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Run control of the MXBean (deadline and node rate) and the end of a batch.
+ */
+class PlacementServiceTest {
+
+    @Test
+    void deadlineDoesNotCarryOverToTheNextRun() {
+        try (PlacementService service = new PlacementService(Fixtures.ROLL_WIDTH, 5, false)) {
+            int height = service.findOptimalPlacementParallelBatches(Fixtures.test4Orders()).totalHeight();
+            service.tightenDeadline(0);
+            assertEquals(0, service.getRemainingDeadlineMillis());
+
+            assertEquals(height, service.findOptimalPlacementParallelBatches(Fixtures.test4Orders()).totalHeight());
+            assertEquals(-1, service.getRemainingDeadlineMillis());
+        }
+    }
+
+    @Test
+    void nodeRateIsTheAverageOfTheLastRunAndReadingDoesNotResetIt() {
+        try (PlacementService service = new PlacementService(Fixtures.ROLL_WIDTH, 5, false)) {
+            assertEquals(0.0, service.getNodesPerSecond());
+            service.findOptimalPlacementParallelBatches(Fixtures.test4Orders());
+            double rate = service.getNodesPerSecond();
+            assertTrue(rate > 0.0);
+            assertEquals(rate, service.getNodesPerSecond());
+        }
+    }
+
+    @Test
+    void batchReturnsOnlyAfterItsRunningBranchesStopped() throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try (PlacementService service = new PlacementService(Fixtures.ROLL_WIDTH, 10, false, pool, false)) {
+            for (int run = 0; run < 100; run++) {
+                // Ten equal orders: the first branch reaches the lower bound while its siblings still search
+                List<CustomerOrder> orders = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    orders.add(new CustomerOrder(180, 100, i + 1, "Part " + i));
+                }
+                SearchMetrics metrics = service.enableMetrics();
+                service.optimizeBatch(orders);
+                long nodes = metrics.getTotalNodes();
+                Thread.sleep(5);
+                assertEquals(nodes, metrics.getTotalNodes(), "A branch kept searching after the batch finished");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
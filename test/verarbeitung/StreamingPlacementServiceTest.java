@@ -0,0 +1,118 @@
+package verarbeitung;
+
+import model.CustomerOrder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Streaming placement: windows are packed onto the committed profile, partial windows are placed
+ * when the intake goes idle.
+ */
+class StreamingPlacementServiceTest {
+
+    private static final int ROLL_WIDTH = Fixtures.ROLL_WIDTH;
+    private static final int DEPTH = 6;
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    @Test
+    void lookaheadWindowsFillTheCommittedProfile() {
+        // Windows stacked on the committed top made this 1860 (batch: 1470)
+        List<CustomerOrder> placed = stream(100);
+        assertValidLayout(placed);
+        assertTrue(heightOf(placed) <= Fixtures.localHeight(Fixtures.test8Orders(), DEPTH), "Streaming height " + heightOf(placed));
+    }
+
+    @Test
+    void partialWindowsArePlacedWhileTheStreamIsOpen() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            PlacementService service = new PlacementService(ROLL_WIDTH, DEPTH, false);
+            try (StreamingPlacementService streaming = new StreamingPlacementService(service, 0, 64)) {
+                CountDownLatch firstCommit = new CountDownLatch(1);
+                streaming.subscribe(collector(Collections.synchronizedList(new ArrayList<>()), firstCommit, null));
+                // Less than one window, and the stream stays open
+                for (CustomerOrder order : Fixtures.test8Orders().subList(0, 2)) {
+                    streaming.submit(order);
+                }
+                firstCommit.await();
+                assertTrue(streaming.getCommittedHeight() > 0);
+            } finally {
+                service.close();
+            }
+        });
+    }
+
+    // --- Helpers ---
+
+    private static List<CustomerOrder> stream(int lookaheadHeight) {
+        return assertTimeoutPreemptively(TIMEOUT, () -> {
+            List<CustomerOrder> placed = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch completed = new CountDownLatch(1);
+            try (PlacementService service = new PlacementService(ROLL_WIDTH, DEPTH, false)) {
+                StreamingPlacementService streaming = new StreamingPlacementService(service, lookaheadHeight, 64);
+                streaming.subscribe(collector(placed, null, completed));
+                for (CustomerOrder order : Fixtures.test8Orders()) {
+                    streaming.submit(order);
+                }
+                streaming.close();
+                completed.await();
+            }
+            return new ArrayList<>(placed);
+        });
+    }
+
+    private static Flow.Subscriber<CustomerOrder> collector(List<CustomerOrder> placed, CountDownLatch first,
+                                                            CountDownLatch completed) {
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(CustomerOrder order) {
+                placed.add(order);
+                if (first != null) first.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                if (completed != null) completed.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                if (completed != null) completed.countDown();
+            }
+        };
+    }
+
+    private static void assertValidLayout(List<CustomerOrder> placed) {
+        assertEquals(Fixtures.test8Orders().size(), placed.size());
+        for (int i = 0; i < placed.size(); i++) {
+            CustomerOrder order = placed.get(i);
+            assertTrue(order.getXLU() >= 0 && order.getYLU() >= 0 && order.getXRO() <= ROLL_WIDTH, order.toString());
+            for (int j = i + 1; j < placed.size(); j++) {
+                assertFalse(order.overlaps(placed.get(j)), order + " overlaps " + placed.get(j));
+            }
+        }
+    }
+
+    private static int heightOf(List<CustomerOrder> placed) {
+        int height = 0;
+        for (CustomerOrder order : placed) {
+            height = Math.max(height, order.getYRO());
+        }
+        return height;
+    }
+}